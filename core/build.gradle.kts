@@ -9,12 +9,20 @@ java {
 }
 
 dependencies {
-    implementation("net.java.dev.jna:jna:5.14.0")
+    // Pointer appears in the public API (Webview.eval(Pointer), NativeScript)
+    api("net.java.dev.jna:jna:5.14.0")
     implementation("net.java.dev.jna:jna-platform:5.14.0")
     implementation("org.json:json:20231013")
 
     compileOnly("org.projectlombok:lombok:1.18.30")
     compileOnly("org.jetbrains:annotations:24.0.0")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
 
 publishing {
@@ -0,0 +1,67 @@
+package dev.webview;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A script (or HTML document) encoded once as NUL-terminated UTF-8 in native memory.
+ *
+ * Passing it to {@link Webview#eval(NativeScript)}, {@link Webview#init(NativeScript)}
+ * or {@link Webview#setHtml(NativeScript)} skips the per-call encoding and copy that
+ * a String goes through, which pays off for large scripts sent repeatedly.
+ * Immutable and safe to share between webviews; the memory is freed on {@link #close()}
+ * (or by the garbage collector).
+ */
+public final class NativeScript implements Closeable {
+    private final Memory memory;
+    private final long size;
+
+    private NativeScript(Memory memory, long size) {
+        this.memory = memory;
+        this.size = size;
+    }
+
+    public static NativeScript of(String script) {
+        return of(script.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param utf8 UTF-8 encoded script, without a terminating NUL
+     */
+    public static NativeScript of(byte[] utf8) {
+        return of(ByteBuffer.wrap(utf8));
+    }
+
+    /**
+     * @param utf8 UTF-8 encoded script (the buffer's remaining bytes), without a terminating NUL
+     */
+    public static NativeScript of(ByteBuffer utf8) {
+        int size = utf8.remaining();
+        Memory memory = new Memory(size + 1L);
+        memory.getByteBuffer(0, size).put(utf8.duplicate());
+        memory.setByte(size, (byte) 0);
+        return new NativeScript(memory, size);
+    }
+
+    /**
+     * Pointer to the NUL-terminated UTF-8 bytes.
+     */
+    public Pointer pointer() {
+        return memory;
+    }
+
+    /**
+     * Length in bytes, excluding the terminating NUL.
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        memory.close();
+    }
+}
@@ -0,0 +1,110 @@
+package dev.webview;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Encodes strings for native calls into a per-thread native buffer that is reused
+ * across calls, instead of a fresh byte[] plus a fresh native copy per call.
+ *
+ * Only valid for functions that copy the string before returning (webview_eval,
+ * webview_set_html, webview_init all do).
+ */
+final class NativeStrings {
+    // Below this, JNA's own marshalling is as cheap and keeps the scratch buffer small
+    static final int POOL_THRESHOLD = 8 * 1024;
+    // Scratch buffers never grow past this, as each thread keeps its buffer for good;
+    // bigger strings (a large setHtml, say) get a one-off allocation freed after the call
+    static final long MAX_POOLED_BYTES = 512L * 1024;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private NativeStrings() {}
+
+    /**
+     * Calls {@code call} with the string as NUL-terminated UTF-8.
+     * The pointer is only valid during the call.
+     */
+    static void withUtf8(String s, Consumer<Pointer> call) {
+        // Worst case is 3 bytes per UTF-16 char (surrogate pairs take 4 bytes for 2 chars)
+        long maxBytes = (long) s.length() * 3 + 1;
+        Scratch scratch = SCRATCH.get();
+        if (scratch.inUse || maxBytes > MAX_POOLED_BYTES) {
+            try (Memory memory = new Memory(maxBytes)) {
+                call.accept(encode(s, memory, maxBytes, newEncoder()));
+            }
+            return;
+        }
+        scratch.inUse = true;
+        try {
+            call.accept(encode(s, scratch.ensureCapacity(maxBytes), maxBytes, scratch.encoder));
+        } finally {
+            scratch.inUse = false;
+        }
+    }
+
+    /**
+     * Calls {@code call} with the bytes copied into native memory and NUL-terminated.
+     */
+    static void withBytes(ByteBuffer utf8, Consumer<Pointer> call) {
+        int size = utf8.remaining();
+        long needed = size + 1L;
+        Scratch scratch = SCRATCH.get();
+        if (scratch.inUse || needed > MAX_POOLED_BYTES) {
+            try (Memory memory = new Memory(needed)) {
+                call.accept(copy(utf8, memory, size));
+            }
+            return;
+        }
+        scratch.inUse = true;
+        try {
+            call.accept(copy(utf8, scratch.ensureCapacity(needed), size));
+        } finally {
+            scratch.inUse = false;
+        }
+    }
+
+    private static Pointer encode(String s, Memory memory, long maxBytes, CharsetEncoder encoder) {
+        ByteBuffer out = memory.getByteBuffer(0, maxBytes);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(s), out, true);
+        encoder.flush(out);
+        out.put((byte) 0);
+        return memory;
+    }
+
+    private static Pointer copy(ByteBuffer utf8, Memory memory, int size) {
+        memory.getByteBuffer(0, size).put(utf8.duplicate());
+        memory.setByte(size, (byte) 0);
+        return memory;
+    }
+
+    private static CharsetEncoder newEncoder() {
+        // Same replacement behavior as String.getBytes for unpaired surrogates
+        return StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static final class Scratch {
+        final CharsetEncoder encoder = newEncoder();
+        Memory memory;
+        boolean inUse;
+
+        Memory ensureCapacity(long bytes) {
+            if (memory == null || memory.size() < bytes) {
+                // Grow at least 2x so a slowly growing script doesn't reallocate every call
+                long grown = memory == null ? POOL_THRESHOLD * 3L : Math.min(memory.size() * 2, MAX_POOLED_BYTES);
+                if (memory != null) memory.close();
+                memory = new Memory(Math.max(bytes, grown));
+            }
+            return memory;
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package dev.webview;
 
 import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import dev.webview.traffic.TrafficListener;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 /**
@@ -19,11 +28,17 @@ import java.util.function.Function;
  * and stability compared to JNI.
  */
 public class Webview implements Closeable {
+    private static final System.Logger LOG = System.getLogger(Webview.class.getName());
 
-    private static final WebviewNative NATIVE;
+    /**
+     * System property with an absolute path to the webview library to load
+     * instead of the one bundled in the jar.
+     */
+    public static final String LIBRARY_PATH_PROPERTY = "dev.webview.library.path";
 
-    static {
-        NATIVE = loadNativeLibrary();
+    // Loaded on first use, so a Webview over a stand-in never loads the real library
+    private static final class NativeHolder {
+        static final WebviewNative NATIVE = loadNativeLibrary();
     }
 
     private static WebviewNative loadNativeLibrary() {
@@ -31,7 +46,7 @@ public class Webview implements Closeable {
         String arch = System.getProperty("os.arch").toLowerCase();
         String javaArch = System.getProperty("sun.arch.data.model");
         
-        System.err.println("[webview] OS: " + osName + ", Architecture: " + arch + ", Java bits: " + javaArch);
+        LOG.log(Level.DEBUG, () -> "OS: " + osName + ", Architecture: " + arch + ", Java bits: " + javaArch);
         
         String resourcePath = null;
         String ext = null;
@@ -59,6 +74,28 @@ public class Webview implements Closeable {
             throw new UnsupportedOperationException("Unsupported OS: " + osName);
         }
 
+        // An explicitly configured library wins over everything else
+        String libraryPath = System.getProperty(LIBRARY_PATH_PROPERTY);
+        if (libraryPath != null && !libraryPath.isEmpty()) {
+            LOG.log(Level.DEBUG, () -> "Loading library from " + LIBRARY_PATH_PROPERTY + ": " + libraryPath);
+            System.load(libraryPath);
+            return Native.load(libraryPath, WebviewNative.class);
+        }
+
+        // Native images built without the embedded natives ship the library next to the executable
+        if (System.getProperty("org.graalvm.nativeimage.imagecode") != null) {
+            String fileName = resourcePath.substring(resourcePath.lastIndexOf('/') + 1);
+            File besideExecutable = ProcessHandle.current().info().command()
+                .map(command -> new File(command).getAbsoluteFile().getParentFile())
+                .map(dir -> new File(dir, fileName))
+                .orElse(null);
+            if (besideExecutable != null && besideExecutable.isFile()) {
+                LOG.log(Level.DEBUG, () -> "Loading library next to executable: " + besideExecutable);
+                System.load(besideExecutable.getAbsolutePath());
+                return Native.load(besideExecutable.getAbsolutePath(), WebviewNative.class);
+            }
+        }
+
         // Try to load bundled version from jar first
         if (resourcePath != null) {
             try {
@@ -68,35 +105,43 @@ public class Webview implements Closeable {
                     tempLib.deleteOnExit();
                     Files.copy(in, tempLib.toPath(), StandardCopyOption.REPLACE_EXISTING);
                     in.close();
-                    System.err.println("[webview] Extracted bundled library to: " + tempLib.getAbsolutePath());
-                    System.err.println("[webview] Bundled DLL size: " + tempLib.length() + " bytes");
+                    LOG.log(Level.DEBUG, () -> "Extracted bundled library to: " + tempLib.getAbsolutePath() +
+                        " (" + tempLib.length() + " bytes)");
                     
                     // Load the library directly into the process
                     System.load(tempLib.getAbsolutePath());
-                    System.err.println("[webview] Successfully loaded native library via System.load()");
+                    LOG.log(Level.DEBUG, "Successfully loaded native library via System.load()");
                     
                     // Now create JNA proxy pointing to the absolute path (already loaded)
                     return Native.load(tempLib.getAbsolutePath(), WebviewNative.class);
                 } else {
-                    System.err.println("[webview] Resource not found at: " + resourcePath);
+                    LOG.log(Level.DEBUG, "Resource not found at: " + resourcePath);
                 }
             } catch (IOException | UnsatisfiedLinkError ex) {
-                System.err.println("[webview] Failed to load from jar: " + ex.getMessage());
-                ex.printStackTrace();
+                LOG.log(Level.WARNING, "Failed to load from jar", ex);
                 // Fall through to try system library
             }
         }
 
         // If bundled version failed, try system library
-        System.err.println("[webview] Attempting to load system library: " + libName);
+        LOG.log(Level.DEBUG, "Attempting to load system library: " + libName);
         return Native.load(libName, WebviewNative.class);
     }
 
+    private final WebviewNative nativeLib;
     private long pointer;
     private boolean closed = false;
+    private volatile TrafficListener trafficListener = null;
+    // Epoch millis around webview_create and of the last navigate()/setHtml(), for page load timelines
+    private final double createStartedMillis;
+    private final double createdMillis;
+    private volatile double navigationMillis = Double.NaN;
     private String initScript = "";
-    private final Map<String, Function<String, String>> bindings = new HashMap<>();
+    private final Map<String, BiConsumer<String, String>> bindings = new HashMap<>();
     private final Map<String, WebviewNative.BindCallback> nativeCallbacks = new HashMap<>();
+    private final Queue<Runnable> dispatchQueue = new ConcurrentLinkedQueue<>();
+    // Single long-lived callback so JNA never sees a collected trampoline
+    private final WebviewNative.DispatchCallback dispatchCallback = (w, arg) -> drainDispatchQueue();
 
     /**
      * Creates a new Webview instance.
@@ -104,20 +149,63 @@ public class Webview implements Closeable {
      * @param debug Enable developer tools if true
      */
     public Webview(boolean debug) {
-        System.err.println("[webview] Creating webview instance (debug=" + debug + ")");
-        this.pointer = NATIVE.webview_create(debug ? 1 : 0, null);
-        System.err.println("[webview] webview_create returned pointer: " + pointer);
+        this(debug, NativeHolder.NATIVE);
+    }
+
+    /**
+     * Creates a new Webview instance over the given native binding, e.g. a
+     * {@link dev.webview.traffic.HeadlessWebviewNative} for tests and replays.
+     *
+     * @param debug Enable developer tools if true
+     * @param nativeLib The webview library to call
+     */
+    public Webview(boolean debug, WebviewNative nativeLib) {
+        this.nativeLib = nativeLib;
+        this.createStartedMillis = epochMillis();
+        this.pointer = nativeLib.webview_create(debug ? 1 : 0, null);
+        this.createdMillis = epochMillis();
+        LOG.log(Level.DEBUG, () -> "Created webview instance (debug=" + debug + "): " + pointer);
         if (this.pointer == 0) {
             throw new RuntimeException("Failed to create webview instance. Check WebView2 runtime is installed on Windows.");
         }
     }
 
+    /**
+     * @return When webview_create was called, in epoch millis
+     */
+    public double getCreateStartedMillis() {
+        return createStartedMillis;
+    }
+
+    /**
+     * @return When webview_create returned, in epoch millis
+     */
+    public double getCreatedMillis() {
+        return createdMillis;
+    }
+
+    /**
+     * @return When navigate() or setHtml() was last called, in epoch millis (NaN if never)
+     */
+    public double getNavigationMillis() {
+        return navigationMillis;
+    }
+
+    /**
+     * Current time in epoch millis with sub-millisecond precision, comparable
+     * with the page's {@code performance.timeOrigin + performance.now()}.
+     */
+    public static double epochMillis() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1000.0 + now.getNano() / 1e6;
+    }
+
     /**
      * Destroys the webview instance.
      */
     public void destroy() {
         if (!closed && pointer != 0) {
-            NATIVE.webview_destroy(pointer);
+            nativeLib.webview_destroy(pointer);
             closed = true;
         }
     }
@@ -126,21 +214,21 @@ public class Webview implements Closeable {
      * Runs the main event loop (blocking).
      */
     public void run() {
-        NATIVE.webview_run(pointer);
+        nativeLib.webview_run(pointer);
     }
 
     /**
      * Terminates the event loop.
      */
     public void terminate() {
-        NATIVE.webview_terminate(pointer);
+        nativeLib.webview_terminate(pointer);
     }
 
     /**
      * Sets the window title.
      */
     public void setTitle(String title) {
-        NATIVE.webview_set_title(pointer, title);
+        nativeLib.webview_set_title(pointer, title);
     }
 
     /**
@@ -151,28 +239,99 @@ public class Webview implements Closeable {
      * @param hint   Size hint (HINT_NONE, HINT_MIN, HINT_MAX, HINT_FIXED)
      */
     public void setSize(int width, int height, int hint) {
-        NATIVE.webview_set_size(pointer, width, height, hint);
+        nativeLib.webview_set_size(pointer, width, height, hint);
     }
 
     /**
      * Navigates to a URL.
      */
     public void navigate(String url) {
-        NATIVE.webview_navigate(pointer, url);
+        navigationMillis = epochMillis();
+        nativeLib.webview_navigate(pointer, url);
     }
 
     /**
      * Sets HTML content directly.
      */
     public void setHtml(String html) {
-        NATIVE.webview_set_html(pointer, html);
+        navigationMillis = epochMillis();
+        if (html.length() < NativeStrings.POOL_THRESHOLD) {
+            nativeLib.webview_set_html(pointer, html);
+        } else {
+            NativeStrings.withUtf8(html, utf8 -> nativeLib.webview_set_html(pointer, utf8));
+        }
+    }
+
+    /**
+     * Sets pre-encoded HTML content.
+     */
+    public void setHtml(NativeScript html) {
+        navigationMillis = epochMillis();
+        nativeLib.webview_set_html(pointer, html.pointer());
+    }
+
+    /**
+     * Sets HTML content given as UTF-8 bytes (without a terminating NUL).
+     */
+    public void setHtml(byte[] utf8) {
+        setHtml(ByteBuffer.wrap(utf8));
+    }
+
+    /**
+     * Sets HTML content given as UTF-8 bytes (the buffer's remaining bytes, without a terminating NUL).
+     */
+    public void setHtml(ByteBuffer utf8) {
+        navigationMillis = epochMillis();
+        NativeStrings.withBytes(utf8, bytes -> nativeLib.webview_set_html(pointer, bytes));
+    }
+
+    /**
+     * Sets HTML content given as NUL-terminated UTF-8 in native memory.
+     * The memory only needs to stay valid for the duration of the call.
+     */
+    public void setHtml(Pointer utf8) {
+        navigationMillis = epochMillis();
+        nativeLib.webview_set_html(pointer, utf8);
     }
 
     /**
      * Injects JavaScript to be executed on page load.
      */
     public void init(String js) {
-        NATIVE.webview_init(pointer, js);
+        if (js.length() < NativeStrings.POOL_THRESHOLD) {
+            nativeLib.webview_init(pointer, js);
+        } else {
+            NativeStrings.withUtf8(js, utf8 -> nativeLib.webview_init(pointer, utf8));
+        }
+    }
+
+    /**
+     * Injects pre-encoded JavaScript to be executed on page load.
+     */
+    public void init(NativeScript js) {
+        nativeLib.webview_init(pointer, js.pointer());
+    }
+
+    /**
+     * Injects JavaScript given as UTF-8 bytes (without a terminating NUL) to be executed on page load.
+     */
+    public void init(byte[] utf8) {
+        init(ByteBuffer.wrap(utf8));
+    }
+
+    /**
+     * Injects JavaScript given as UTF-8 bytes (the buffer's remaining bytes) to be executed on page load.
+     */
+    public void init(ByteBuffer utf8) {
+        NativeStrings.withBytes(utf8, bytes -> nativeLib.webview_init(pointer, bytes));
+    }
+
+    /**
+     * Injects JavaScript given as NUL-terminated UTF-8 in native memory to be executed on page load.
+     * The memory only needs to stay valid for the duration of the call.
+     */
+    public void init(Pointer utf8) {
+        nativeLib.webview_init(pointer, utf8);
     }
 
     /**
@@ -187,7 +346,7 @@ public class Webview implements Closeable {
             this.initScript = script;
         }
         if (pointer != 0) {
-            NATIVE.webview_init(pointer, this.initScript);
+            init(this.initScript);
         }
     }
 
@@ -197,40 +356,149 @@ public class Webview implements Closeable {
      * @param handler Function that receives JSON string of arguments, returns JSON string result (or null)
      */
     public void bind(String name, Function<String, String> handler) {
+        bindAsync(name, (seq, req) -> {
+            try {
+                String result = handler.apply(req);
+                // Return the result asynchronously - empty string means undefined in JS
+                returnResult(seq, true, result);
+            } catch (Exception e) {
+                LOG.log(Level.ERROR, () -> "Error in binding '" + name + "'", e);
+                returnResult(seq, false, null);
+            }
+        });
+    }
+
+    /**
+     * Registers a binding whose result is returned later with {@link #returnResult}.
+     * @param name Name of the binding (accessible as window[name]())
+     * @param handler Receives the call's sequence id and the JSON string of arguments
+     */
+    public void bindAsync(String name, BiConsumer<String, String> handler) {
         bindings.put(name, handler);
         
         // Create and store the callback to prevent garbage collection
         WebviewNative.BindCallback callback = (seq, req, arg) -> {
+            TrafficListener listener = trafficListener;
+            if (listener != null) listener.onCall(name, seq, req);
             try {
-                String result = handler.apply(req);
-                // Return the result asynchronously - empty string means undefined in JS
-                NATIVE.webview_return(pointer, seq, 0, result != null ? result : "");
+                handler.accept(seq, req);
             } catch (Exception e) {
-                e.printStackTrace();
-                NATIVE.webview_return(pointer, seq, 1, "");
+                LOG.log(Level.ERROR, () -> "Error in binding '" + name + "'", e);
+                returnResult(seq, false, null);
             }
         };
         nativeCallbacks.put(name, callback);
         
         // Register with native webview (pass null for arg since we don't use it)
-        int errorCode = NATIVE.webview_bind(pointer, name, callback, null);
+        int errorCode = nativeLib.webview_bind(pointer, name, callback, null);
         if (errorCode != 0) {
             throw new RuntimeException("Failed to bind '" + name + "': error code " + errorCode);
         }
     }
 
+    /**
+     * Completes a call to a binding registered with {@link #bindAsync}.
+     * @param seq Sequence id passed to the handler
+     * @param success false rejects the JS promise
+     * @param result JSON string result, or null for undefined
+     */
+    public void returnResult(String seq, boolean success, String result) {
+        TrafficListener listener = trafficListener;
+        if (listener != null) listener.onReturn(seq, success, result);
+        nativeLib.webview_return(pointer, seq, success ? 0 : 1, result != null ? result : "");
+    }
+
     /**
      * Evaluates JavaScript asynchronously.
+     * Large scripts are encoded into a reused native buffer instead of a fresh copy per call.
      */
     public void eval(String js) {
-        NATIVE.webview_eval(pointer, js);
+        TrafficListener listener = trafficListener;
+        if (listener != null) listener.onEval(js);
+        if (js.length() < NativeStrings.POOL_THRESHOLD) {
+            nativeLib.webview_eval(pointer, js);
+        } else {
+            NativeStrings.withUtf8(js, utf8 -> nativeLib.webview_eval(pointer, utf8));
+        }
+    }
+
+    /**
+     * Evaluates pre-encoded JavaScript asynchronously.
+     */
+    public void eval(NativeScript js) {
+        TrafficListener listener = trafficListener;
+        if (listener != null) listener.onEval(js.pointer().getString(0, "UTF-8"));
+        nativeLib.webview_eval(pointer, js.pointer());
+    }
+
+    /**
+     * Evaluates JavaScript given as UTF-8 bytes (without a terminating NUL).
+     */
+    public void eval(byte[] utf8) {
+        eval(ByteBuffer.wrap(utf8));
+    }
+
+    /**
+     * Evaluates JavaScript given as UTF-8 bytes (the buffer's remaining bytes, without a terminating NUL).
+     */
+    public void eval(ByteBuffer utf8) {
+        TrafficListener listener = trafficListener;
+        if (listener != null) listener.onEval(StandardCharsets.UTF_8.decode(utf8.duplicate()).toString());
+        NativeStrings.withBytes(utf8, bytes -> nativeLib.webview_eval(pointer, bytes));
+    }
+
+    /**
+     * Evaluates JavaScript given as NUL-terminated UTF-8 in native memory.
+     * The memory only needs to stay valid for the duration of the call.
+     */
+    public void eval(Pointer utf8) {
+        TrafficListener listener = trafficListener;
+        if (listener != null) listener.onEval(utf8.getString(0, "UTF-8"));
+        nativeLib.webview_eval(pointer, utf8);
+    }
+
+    /**
+     * Observes the bridge traffic of this webview: binding calls, their returns
+     * and evaluated scripts. Used by {@link dev.webview.traffic.TrafficRecorder}.
+     *
+     * @param listener The listener, or null to stop observing
+     */
+    public void setTrafficListener(TrafficListener listener) {
+        this.trafficListener = listener;
+    }
+
+    /**
+     * @return The current traffic listener, or null
+     */
+    public TrafficListener getTrafficListener() {
+        return trafficListener;
+    }
+
+    /**
+     * Runs a task on the UI thread (the thread running the event loop).
+     * Safe to call from any thread; tasks run in submission order.
+     */
+    public void dispatch(Runnable task) {
+        dispatchQueue.add(task);
+        nativeLib.webview_dispatch(pointer, dispatchCallback, null);
+    }
+
+    private void drainDispatchQueue() {
+        Runnable task;
+        while ((task = dispatchQueue.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.log(Level.ERROR, "Error in dispatched task", e);
+            }
+        }
     }
 
     /**
      * Gets the native window handle (GtkWindow, NSWindow, HWND, etc).
      */
     public long getWindow() {
-        return NATIVE.webview_get_window(pointer);
+        return nativeLib.webview_get_window(pointer);
     }
 
     /**
@@ -240,7 +508,7 @@ public class Webview implements Closeable {
      * @return The native handle or 0 if not available
      */
     public long getNativeHandle(int kind) {
-        return NATIVE.webview_get_native_handle(pointer, kind);
+        return nativeLib.webview_get_native_handle(pointer, kind);
     }
 
     @Override
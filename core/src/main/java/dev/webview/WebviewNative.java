@@ -97,6 +97,30 @@ public interface WebviewNative extends Library {
      */
     void webview_eval(long w, String js);
 
+    /**
+     * Sets HTML content given as NUL-terminated UTF-8 in native memory.
+     *
+     * @param w Webview instance pointer
+     * @param html HTML content
+     */
+    void webview_set_html(long w, com.sun.jna.Pointer html);
+
+    /**
+     * Injects JavaScript, given as NUL-terminated UTF-8 in native memory, to be executed on page load.
+     *
+     * @param w Webview instance pointer
+     * @param js JavaScript code
+     */
+    void webview_init(long w, com.sun.jna.Pointer js);
+
+    /**
+     * Evaluates JavaScript, given as NUL-terminated UTF-8 in native memory, asynchronously.
+     *
+     * @param w Webview instance pointer
+     * @param js JavaScript code
+     */
+    void webview_eval(long w, com.sun.jna.Pointer js);
+
     /**
      * Gets the native window handle.
      *
@@ -136,6 +160,16 @@ public interface WebviewNative extends Library {
      */
     int webview_return(long w, String seq, int status, String result);
 
+    /**
+     * Schedules a function to be invoked on the thread running the event loop.
+     *
+     * @param w Webview instance pointer
+     * @param fn Callback invoked on the UI thread
+     * @param arg Optional user-provided argument passed to callback (use null if not needed)
+     * @return Error code (0 = success)
+     */
+    int webview_dispatch(long w, DispatchCallback fn, com.sun.jna.Pointer arg);
+
     /**
      * Callback interface for webview_bind.
      */
@@ -148,4 +182,16 @@ public interface WebviewNative extends Library {
          */
         void invoke(String seq, String req, com.sun.jna.Pointer arg);
     }
+
+    /**
+     * Callback interface for webview_dispatch.
+     */
+    interface DispatchCallback extends com.sun.jna.Callback {
+        /**
+         * Called on the UI thread.
+         * @param w Webview instance pointer
+         * @param arg User-provided argument from webview_dispatch() (will be null if not provided)
+         */
+        void invoke(long w, com.sun.jna.Pointer arg);
+    }
 }
@@ -0,0 +1,589 @@
+package dev.webview.bridge;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Decodes the JSON arguments of an INVOKE into the declared parameter types of
+ * a {@link JavascriptFunction}.
+ *
+ * The plan (one converter per parameter) is built once per function from its
+ * generic parameter types, so a call only walks the JSON values. Supported are
+ * primitives and their boxes, strings, enums (by name or ordinal), records,
+ * POJOs (no-arg constructor + fields), arrays, List/Set/Queue/Deque/Collection,
+ * Map (including sorted and concurrent ones), collections and maps of a concrete
+ * class with a no-arg constructor, Optional, {@link JsCallback} and {@code Consumer}. Parameters typed as
+ * Object, JSONObject or JSONArray get the raw JSON value.
+ *
+ * Missing trailing arguments become null, zero/false for primitives and
+ * {@code Optional.empty()}; extra arguments are ignored. A varargs parameter
+ * collects all remaining arguments.
+ */
+public final class ArgumentBinder {
+    private static final Map<Method, ArgumentBinder> METHOD_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Type, Converter> CONVERTERS = new ConcurrentHashMap<>();
+
+    /** Passes the JSON values as they are, only turning callback references into {@link JsCallback}. */
+    static final ArgumentBinder RAW = new ArgumentBinder(null, false, null);
+
+    private final Converter[] converters;
+    private final boolean varArgs;
+    private final Class<?> varArgType;
+
+    private ArgumentBinder(Converter[] converters, boolean varArgs, Class<?> varArgType) {
+        this.converters = converters;
+        this.varArgs = varArgs;
+        this.varArgType = varArgType;
+    }
+
+    /**
+     * Builds the plan for a function, used by generated dispatchers.
+     *
+     * @param varArgs Whether the last parameter is a varargs array
+     * @param parameterTypes Generic parameter types, see {@link #parameterized} and {@link #arrayOf}
+     */
+    public static ArgumentBinder of(boolean varArgs, Type... parameterTypes) {
+        Converter[] converters = new Converter[parameterTypes.length];
+        Class<?> varArgType = null;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Type type = parameterTypes[i];
+            if (varArgs && i == parameterTypes.length - 1) {
+                Type component = componentType(type);
+                varArgType = rawType(component);
+                type = component;
+            }
+            converters[i] = converter(type);
+        }
+        return new ArgumentBinder(converters, varArgs && parameterTypes.length > 0, varArgType);
+    }
+
+    /**
+     * Plan for a reflectively scanned method, shared by all instances of its class.
+     */
+    static ArgumentBinder of(Method method) {
+        return METHOD_CACHE.computeIfAbsent(method, m -> of(m.isVarArgs(), m.getGenericParameterTypes()));
+    }
+
+    /**
+     * A generic type such as {@code List<Item>}, for generated dispatchers.
+     */
+    public static Type parameterized(Class<?> rawType, Type... typeArguments) {
+        return new ParameterizedTypeImpl(rawType, typeArguments);
+    }
+
+    /**
+     * A generic array type such as {@code List<Item>[]}, for generated dispatchers.
+     */
+    public static Type arrayOf(Type componentType) {
+        return (GenericArrayType) () -> componentType;
+    }
+
+    /**
+     * Decodes the arguments of one call.
+     */
+    Object[] bind(JSONArray json, Callbacks callbacks) {
+        if (converters == null) {
+            Object[] result = new Object[json.length()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = raw(json.get(i), callbacks);
+            }
+            return result;
+        }
+
+        Object[] result = new Object[converters.length];
+        int fixed = varArgs ? converters.length - 1 : converters.length;
+        for (int i = 0; i < fixed; i++) {
+            try {
+                result[i] = i < json.length() ? converters[i].convert(json.get(i), callbacks) : converters[i].missing();
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cannot decode argument " + i + ": " + e.getMessage(), e);
+            }
+        }
+        if (varArgs) {
+            int count = Math.max(0, json.length() - fixed);
+            Object array = Array.newInstance(varArgType, count);
+            Converter converter = converters[fixed];
+            for (int j = 0; j < count; j++) {
+                try {
+                    Array.set(array, j, converter.convert(json.get(fixed + j), callbacks));
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Cannot decode argument " + (fixed + j) + ": " + e.getMessage(), e);
+                }
+            }
+            result[fixed] = array;
+        }
+        return result;
+    }
+
+    /**
+     * Decodes a single JSON value into a type, e.g. a property value assigned by the page.
+     * Functions are rejected, there is no call they could be released after.
+     */
+    static Object decode(Object json, Type type) {
+        return converter(type).convert(json, handle -> {
+            throw new IllegalArgumentException("Functions cannot be assigned to properties");
+        });
+    }
+
+    /**
+     * Creates the {@link JsCallback} for a callback reference found in the arguments.
+     */
+    @FunctionalInterface
+    interface Callbacks {
+        JsCallback callback(long handle);
+    }
+
+    private interface Converter {
+        Object convert(Object json, Callbacks callbacks);
+
+        /** Value used when the argument was not passed at all. */
+        default Object missing() {
+            return null;
+        }
+    }
+
+    // Converters
+
+    private static Converter converter(Type type) {
+        Converter converter = CONVERTERS.get(type);
+        if (converter == null) {
+            converter = create(type);
+            Converter existing = CONVERTERS.putIfAbsent(type, converter);
+            if (existing != null) converter = existing;
+        }
+        return converter;
+    }
+
+    private static Converter create(Type type) {
+        if (type instanceof WildcardType) {
+            Type[] upper = ((WildcardType) type).getUpperBounds();
+            return converter(upper.length > 0 ? upper[0] : Object.class);
+        }
+        if (type instanceof TypeVariable) {
+            Type[] bounds = ((TypeVariable<?>) type).getBounds();
+            return converter(bounds.length > 0 ? bounds[0] : Object.class);
+        }
+        if (type instanceof GenericArrayType) {
+            return arrayConverter(((GenericArrayType) type).getGenericComponentType());
+        }
+
+        Class<?> raw = rawType(type);
+        Type[] typeArguments = type instanceof ParameterizedType
+            ? ((ParameterizedType) type).getActualTypeArguments() : new Type[0];
+
+        if (raw.isPrimitive()) return primitiveConverter(raw);
+        if (raw == Object.class) return ArgumentBinder::raw;
+        if (raw == JSONObject.class || raw == JSONArray.class) return (json, callbacks) -> json == JSONObject.NULL ? null : raw.cast(json);
+        if (raw == String.class) return (json, callbacks) -> isNull(json) ? null : json.toString();
+        if (raw == BigDecimal.class) return (json, callbacks) -> isNull(json) ? null : new BigDecimal(json.toString());
+        if (raw == BigInteger.class) return (json, callbacks) -> isNull(json) ? null : new BigInteger(json.toString());
+        Class<?> unboxed = unbox(raw);
+        if (unboxed != null) {
+            Converter primitive = primitiveConverter(unboxed);
+            return (json, callbacks) -> isNull(json) ? null : primitive.convert(json, callbacks);
+        }
+        if (raw.isEnum()) return enumConverter(raw);
+        if (raw == JsCallback.class || raw == Consumer.class) return ArgumentBinder::callback;
+        if (raw == Optional.class) {
+            Converter element = converter(argument(typeArguments, 0));
+            return new Converter() {
+                @Override
+                public Object convert(Object json, Callbacks callbacks) {
+                    return isNull(json) ? Optional.empty() : Optional.ofNullable(element.convert(json, callbacks));
+                }
+
+                @Override
+                public Object missing() {
+                    return Optional.empty();
+                }
+            };
+        }
+        if (raw.isArray()) return arrayConverter(raw.getComponentType());
+        if (Map.class.isAssignableFrom(raw)) return mapConverter(raw, argument(typeArguments, 0), argument(typeArguments, 1));
+        if (Collection.class.isAssignableFrom(raw) || raw == Iterable.class) return collectionConverter(raw, argument(typeArguments, 0));
+        if (raw.isRecord()) return new RecordConverter(raw);
+        if (raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+            // Nothing to instantiate, the method has to deal with the JSON itself
+            return ArgumentBinder::raw;
+        }
+        return new PojoConverter(raw);
+    }
+
+    private static Converter primitiveConverter(Class<?> type) {
+        Converter converter;
+        if (type == boolean.class) {
+            converter = (json, callbacks) -> json instanceof Boolean ? json : Boolean.parseBoolean(json.toString());
+        } else if (type == char.class) {
+            converter = (json, callbacks) -> {
+                String s = json.toString();
+                if (s.length() != 1) throw new IllegalArgumentException("Expected a single character: " + s);
+                return s.charAt(0);
+            };
+        } else if (type == int.class) {
+            converter = (json, callbacks) -> json instanceof Number ? ((Number) json).intValue() : Integer.parseInt(json.toString());
+        } else if (type == long.class) {
+            converter = (json, callbacks) -> json instanceof Number ? ((Number) json).longValue() : Long.parseLong(json.toString());
+        } else if (type == double.class) {
+            converter = (json, callbacks) -> json instanceof Number ? ((Number) json).doubleValue() : Double.parseDouble(json.toString());
+        } else if (type == float.class) {
+            converter = (json, callbacks) -> json instanceof Number ? ((Number) json).floatValue() : Float.parseFloat(json.toString());
+        } else if (type == short.class) {
+            converter = (json, callbacks) -> json instanceof Number ? ((Number) json).shortValue() : Short.parseShort(json.toString());
+        } else if (type == byte.class) {
+            converter = (json, callbacks) -> json instanceof Number ? ((Number) json).byteValue() : Byte.parseByte(json.toString());
+        } else {
+            throw new IllegalArgumentException("Unsupported parameter type: " + type);
+        }
+
+        Object zero = Array.get(Array.newInstance(type, 1), 0);
+        return new Converter() {
+            @Override
+            public Object convert(Object json, Callbacks callbacks) {
+                return isNull(json) ? zero : converter.convert(json, callbacks);
+            }
+
+            @Override
+            public Object missing() {
+                return zero;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter enumConverter(Class<?> type) {
+        Object[] constants = type.getEnumConstants();
+        return (json, callbacks) -> {
+            if (isNull(json)) return null;
+            if (json instanceof Number) return constants[((Number) json).intValue()];
+            return Enum.valueOf((Class) type, json.toString());
+        };
+    }
+
+    private static Converter arrayConverter(Type componentType) {
+        Class<?> component = rawType(componentType);
+        Converter element = converter(componentType);
+        return (json, callbacks) -> {
+            if (isNull(json)) return null;
+            JSONArray values = asArray(json);
+            Object array = Array.newInstance(component, values.length());
+            for (int i = 0; i < values.length(); i++) {
+                Array.set(array, i, element.convert(values.get(i), callbacks));
+            }
+            return array;
+        };
+    }
+
+    private static Converter collectionConverter(Class<?> type, Type elementType) {
+        Converter element = converter(elementType);
+        IntFunction<Collection<Object>> factory = collectionFactory(type);
+        return (json, callbacks) -> {
+            if (isNull(json)) return null;
+            JSONArray values = asArray(json);
+            Collection<Object> result = factory.apply(values.length());
+            for (int i = 0; i < values.length(); i++) {
+                result.add(element.convert(values.get(i), callbacks));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * The collection built for a parameter type: the type itself if it is a
+     * concrete class with a no-arg constructor, otherwise the usual implementation
+     * of the interface. Fails when the plan is built, not on the first call.
+     */
+    private static IntFunction<Collection<Object>> collectionFactory(Class<?> type) {
+        if (type.isAssignableFrom(ArrayList.class)) return ArrayList::new;
+        if (type.isAssignableFrom(LinkedHashSet.class)) return size -> new LinkedHashSet<>();
+        if (type.isAssignableFrom(TreeSet.class)) return size -> new TreeSet<>();
+        if (type.isAssignableFrom(ArrayDeque.class)) return ArrayDeque::new;
+        if (type.isAssignableFrom(LinkedList.class)) return size -> new LinkedList<>();
+        if (type.isAssignableFrom(ConcurrentSkipListSet.class)) return size -> new ConcurrentSkipListSet<>();
+        if (type.isAssignableFrom(LinkedBlockingDeque.class)) return size -> new LinkedBlockingDeque<>();
+        Supplier<Object> constructor = noArgConstructor(type);
+        @SuppressWarnings("unchecked")
+        IntFunction<Collection<Object>> factory = size -> (Collection<Object>) constructor.get();
+        return factory;
+    }
+
+    private static Converter mapConverter(Class<?> type, Type keyType, Type valueType) {
+        // Keys arrive as strings, which the string, number and enum converters all accept
+        Converter key = converter(keyType);
+        Converter value = converter(valueType);
+        Supplier<Map<Object, Object>> factory = mapFactory(type);
+        return (json, callbacks) -> {
+            if (isNull(json)) return null;
+            JSONObject values = asObject(json);
+            Map<Object, Object> result = factory.get();
+            for (String name : values.keySet()) {
+                result.put(key.convert(name, callbacks), value.convert(values.get(name), callbacks));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Like {@link #collectionFactory}, for maps.
+     */
+    private static Supplier<Map<Object, Object>> mapFactory(Class<?> type) {
+        if (type.isAssignableFrom(LinkedHashMap.class)) return LinkedHashMap::new;
+        if (type.isAssignableFrom(TreeMap.class)) return TreeMap::new;
+        if (type.isAssignableFrom(ConcurrentHashMap.class)) return ConcurrentHashMap::new;
+        if (type.isAssignableFrom(ConcurrentSkipListMap.class)) return ConcurrentSkipListMap::new;
+        Supplier<Object> constructor = noArgConstructor(type);
+        @SuppressWarnings("unchecked")
+        Supplier<Map<Object, Object>> factory = () -> (Map<Object, Object>) constructor.get();
+        return factory;
+    }
+
+    private static Supplier<Object> noArgConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Unsupported parameter type " + type.getName() + ", declare a List, Set, Queue, Deque or Map instead");
+        }
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Unsupported parameter type " + type.getName() + ": no no-arg constructor", e);
+        }
+        if (!constructor.trySetAccessible()) {
+            throw new IllegalArgumentException("Unsupported parameter type " + type.getName() + ": constructor not accessible");
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot create " + type.getName(), e);
+            }
+        };
+    }
+
+    /**
+     * Builds a record through its canonical constructor. The component plan is
+     * resolved on first use, so records may refer to themselves.
+     */
+    private static final class RecordConverter implements Converter {
+        private final Class<?> type;
+        private volatile Constructor<?> constructor;
+        private String[] names;
+        private Converter[] components;
+
+        RecordConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        private synchronized void resolve() {
+            if (constructor != null) return;
+            RecordComponent[] recordComponents = type.getRecordComponents();
+            Class<?>[] rawTypes = new Class<?>[recordComponents.length];
+            names = new String[recordComponents.length];
+            components = new Converter[recordComponents.length];
+            for (int i = 0; i < recordComponents.length; i++) {
+                rawTypes[i] = recordComponents[i].getType();
+                names[i] = recordComponents[i].getName();
+                components[i] = converter(recordComponents[i].getGenericType());
+            }
+            try {
+                Constructor<?> canonical = type.getDeclaredConstructor(rawTypes);
+                canonical.setAccessible(true);
+                constructor = canonical;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("No canonical constructor on " + type.getName(), e);
+            }
+        }
+
+        @Override
+        public Object convert(Object json, Callbacks callbacks) {
+            if (isNull(json)) return null;
+            if (constructor == null) resolve();
+            JSONObject values = asObject(json);
+            Object[] args = new Object[components.length];
+            for (int i = 0; i < components.length; i++) {
+                args[i] = values.has(names[i]) ? components[i].convert(values.get(names[i]), callbacks) : components[i].missing();
+            }
+            try {
+                return constructor.newInstance(args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot create " + type.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Builds an object through its no-arg constructor and assigns the fields
+     * present in the JSON. Static and transient fields are skipped.
+     */
+    private static final class PojoConverter implements Converter {
+        private final Class<?> type;
+        private volatile Constructor<?> constructor;
+        private Map<String, Field> fields;
+        private Map<String, Converter> converters;
+
+        PojoConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        private synchronized void resolve() {
+            if (constructor != null) return;
+            fields = new HashMap<>();
+            converters = new HashMap<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+                    if (fields.containsKey(field.getName())) continue; // shadowed by a subclass
+                    field.setAccessible(true);
+                    fields.put(field.getName(), field);
+                    converters.put(field.getName(), converter(field.getGenericType()));
+                }
+            }
+            try {
+                Constructor<?> noArgs = type.getDeclaredConstructor();
+                noArgs.setAccessible(true);
+                constructor = noArgs;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(type.getName() + " needs a no-arg constructor to be used as an argument", e);
+            }
+        }
+
+        @Override
+        public Object convert(Object json, Callbacks callbacks) {
+            if (isNull(json)) return null;
+            if (constructor == null) resolve();
+            JSONObject values = asObject(json);
+            try {
+                Object instance = constructor.newInstance();
+                for (String name : values.keySet()) {
+                    Field field = fields.get(name);
+                    if (field == null) continue; // unknown keys are ignored
+                    field.set(instance, converters.get(name).convert(values.get(name), callbacks));
+                }
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot create " + type.getName(), e);
+            }
+        }
+    }
+
+    // Helpers
+
+    private static Object raw(Object json, Callbacks callbacks) {
+        if (json == JSONObject.NULL) return null;
+        if (json instanceof JSONObject && ((JSONObject) json).has("__bridgeCallback")) {
+            return callback(json, callbacks);
+        }
+        return json;
+    }
+
+    private static Object callback(Object json, Callbacks callbacks) {
+        if (isNull(json)) return null;
+        // A JS function, registered by the page under this handle
+        JSONObject reference = asObject(json);
+        if (!reference.has("__bridgeCallback")) throw new IllegalArgumentException("Expected a function");
+        return callbacks.callback(reference.getLong("__bridgeCallback"));
+    }
+
+    private static boolean isNull(Object json) {
+        return json == null || json == JSONObject.NULL;
+    }
+
+    private static JSONArray asArray(Object json) {
+        if (json instanceof JSONArray) return (JSONArray) json;
+        throw new IllegalArgumentException("Expected an array, got " + json);
+    }
+
+    private static JSONObject asObject(Object json) {
+        if (json instanceof JSONObject) return (JSONObject) json;
+        throw new IllegalArgumentException("Expected an object, got " + json);
+    }
+
+    private static Type argument(Type[] typeArguments, int index) {
+        return index < typeArguments.length ? typeArguments[index] : Object.class;
+    }
+
+    private static Type componentType(Type arrayType) {
+        if (arrayType instanceof GenericArrayType) return ((GenericArrayType) arrayType).getGenericComponentType();
+        return rawType(arrayType).getComponentType();
+    }
+
+    static Class<?> rawType(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return rawType(((ParameterizedType) type).getRawType());
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof WildcardType) {
+            Type[] upper = ((WildcardType) type).getUpperBounds();
+            return upper.length > 0 ? rawType(upper[0]) : Object.class;
+        }
+        if (type instanceof TypeVariable) {
+            Type[] bounds = ((TypeVariable<?>) type).getBounds();
+            return bounds.length > 0 ? rawType(bounds[0]) : Object.class;
+        }
+        return Object.class;
+    }
+
+    /**
+     * @return The primitive type of a box, null for any other class
+     */
+    private static Class<?> unbox(Class<?> type) {
+        if (type == Integer.class) return int.class;
+        if (type == Long.class) return long.class;
+        if (type == Double.class) return double.class;
+        if (type == Float.class) return float.class;
+        if (type == Short.class) return short.class;
+        if (type == Byte.class) return byte.class;
+        if (type == Character.class) return char.class;
+        if (type == Boolean.class) return boolean.class;
+        return null;
+    }
+
+    private static final class ParameterizedTypeImpl implements ParameterizedType {
+        private final Class<?> rawType;
+        private final Type[] typeArguments;
+
+        ParameterizedTypeImpl(Class<?> rawType, Type[] typeArguments) {
+            this.rawType = rawType;
+            this.typeArguments = typeArguments;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return typeArguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ParameterizedType)) return false;
+            ParameterizedType other = (ParameterizedType) o;
+            return rawType.equals(other.getRawType()) && Arrays.equals(typeArguments, other.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(typeArguments) ^ rawType.hashCode();
+        }
+    }
+}
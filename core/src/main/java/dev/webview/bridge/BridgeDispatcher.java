@@ -0,0 +1,36 @@
+package dev.webview.bridge;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Reflection-free access to the members of a {@link JavascriptObject} subclass.
+ *
+ * Implementations are generated at build time by the webview_java annotation
+ * processor and found through {@link java.util.ServiceLoader}. Types without a
+ * generated dispatcher are scanned with reflection instead.
+ */
+public interface BridgeDispatcher {
+    /**
+     * The exact class this dispatcher was generated for.
+     */
+    Class<? extends JavascriptObject> type();
+
+    /**
+     * Arguments of the JS {@code defineMembers()} call for this type,
+     * e.g. {@code ["increment"], {"count":null}}.
+     */
+    String memberScript();
+
+    /**
+     * Declared types of the sub-object fields, by name, in declaration order.
+     */
+    default Map<String, Class<? extends JavascriptObject>> subObjectTypes() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Registers the functions, properties and sub-objects of an instance.
+     */
+    void describe(JavascriptObject target, BridgeMembers members);
+}
@@ -0,0 +1,39 @@
+package dev.webview.bridge;
+
+import java.lang.System.Logger.Level;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the generated {@link BridgeDispatcher}s on the classpath.
+ */
+final class BridgeDispatchers {
+    private static volatile Map<Class<?>, BridgeDispatcher> dispatchers;
+
+    private BridgeDispatchers() {}
+
+    static BridgeDispatcher find(Class<?> type) {
+        Map<Class<?>, BridgeDispatcher> loaded = dispatchers;
+        if (loaded == null) {
+            loaded = load();
+            dispatchers = loaded;
+        }
+        return loaded.get(type);
+    }
+
+    private static Map<Class<?>, BridgeDispatcher> load() {
+        Map<Class<?>, BridgeDispatcher> loaded = new HashMap<>();
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) loader = BridgeDispatcher.class.getClassLoader();
+        try {
+            for (BridgeDispatcher dispatcher : ServiceLoader.load(BridgeDispatcher.class, loader)) {
+                loaded.put(dispatcher.type(), dispatcher);
+            }
+        } catch (Throwable e) {
+            // A broken generated dispatcher only costs us the reflection fallback
+            System.getLogger(BridgeDispatchers.class.getName()).log(Level.WARNING, "Failed to load bridge dispatchers", e);
+        }
+        return loaded;
+    }
+}
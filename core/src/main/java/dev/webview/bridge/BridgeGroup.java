@@ -0,0 +1,149 @@
+package dev.webview.bridge;
+
+import dev.webview.NativeScript;
+
+import java.lang.System.Logger.Level;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Broadcasts events to several bridges (one per window) at once.
+ *
+ * The payload is serialized once and the same immutable script fragment is
+ * queued to every member that listens for the event type; a window that sends
+ * it on its own evals a native script buffer encoded once for all of them. Each window drains
+ * its own queue on its UI thread, so a slow window only grows its own backlog
+ * (bounded by {@link #setMaxBacklog(int)}, oldest events dropped first).
+ *
+ * Usage:
+ * <pre>
+ * BridgeGroup group = new BridgeGroup();
+ * group.add(bridge1);
+ * group.add(bridge2);
+ * group.emit("tick", quote);
+ * </pre>
+ */
+public final class BridgeGroup {
+    private static final System.Logger LOG = System.getLogger(BridgeGroup.class.getName());
+
+    private final List<WebviewBridge> members = new CopyOnWriteArrayList<>();
+    private volatile int maxBacklog = 1024;
+
+    public void add(WebviewBridge bridge) {
+        if (!members.contains(bridge)) {
+            members.add(bridge);
+        }
+    }
+
+    public void remove(WebviewBridge bridge) {
+        members.remove(bridge);
+    }
+
+    public List<WebviewBridge> getMembers() {
+        return List.copyOf(members);
+    }
+
+    /**
+     * Limits how many broadcast events may wait for a single window.
+     */
+    public void setMaxBacklog(int maxBacklog) {
+        if (maxBacklog < 1) throw new IllegalArgumentException("maxBacklog must be at least 1");
+        this.maxBacklog = maxBacklog;
+    }
+
+    /**
+     * Emit an event to every member that listens for it (or whose page is not
+     * ready yet, see {@link WebviewBridge#isPageReady()}).
+     *
+     * @param eventType The event type/name
+     * @param data The event data (JSON serialized once for all windows)
+     */
+    public void emit(String eventType, Object data) {
+        if (!anyInterested(eventType)) return;
+        broadcast(eventType, data);
+    }
+
+    /**
+     * Emit an event with a lazily computed payload.
+     * The supplier is called at most once, and only if some window listens.
+     */
+    public void emit(String eventType, Supplier<?> data) {
+        if (!anyInterested(eventType)) return;
+        broadcast(eventType, data != null ? data.get() : null);
+    }
+
+    /**
+     * Number of broadcast events queued for the bridge's window and not yet sent.
+     */
+    public int getBacklog(WebviewBridge bridge) {
+        return bridge.broadcastBacklog();
+    }
+
+    /**
+     * Number of broadcast events dropped for the bridge's window because its backlog was full.
+     */
+    public long getDroppedEvents(WebviewBridge bridge) {
+        return bridge.droppedBroadcasts();
+    }
+
+    private boolean anyInterested(String eventType) {
+        for (WebviewBridge bridge : members) {
+            if (!bridge.isPageReady() || bridge.hasListeners(eventType)) return true;
+        }
+        return false;
+    }
+
+    private void broadcast(String eventType, Object data) {
+        String json;
+        try {
+            json = String.valueOf(WebviewBridge.toJson(data));
+        } catch (Exception e) {
+            LOG.log(Level.ERROR, () -> "Error emitting event '" + eventType + "'", e);
+            return;
+        }
+        Event event = new Event(eventType, json);
+        int limit = maxBacklog;
+        for (WebviewBridge bridge : members) {
+            bridge.queueBroadcast(event, limit);
+        }
+    }
+
+    /**
+     * A serialized event shared by all windows it is sent to.
+     */
+    static final class Event {
+        final String eventType;
+        final String json;
+        // [type, data] entry of a dispatchBatch() call
+        final String batchEntry;
+        private volatile NativeScript script;
+
+        Event(String eventType, String json) {
+            this.eventType = eventType;
+            this.json = json;
+            this.batchEntry = "[" + WebviewBridge.toJson(eventType) + "," + json + "]";
+        }
+
+        /**
+         * The eval dispatching this event alone, encoded on first use and shared by
+         * every window that flushes it on its own. Not tied to a page generation, the
+         * runtime drops it unless its page is shown (READY sent, not hidden since).
+         */
+        NativeScript script() {
+            NativeScript encoded = script;
+            if (encoded == null) {
+                synchronized (this) {
+                    encoded = script;
+                    if (encoded == null) {
+                        script = encoded = NativeScript.of(
+                            "if (window.Bridge && window.Bridge.__internal) {" +
+                            "  window.Bridge.__internal.dispatchBroadcast([" + batchEntry + "]);" +
+                            "}");
+                    }
+                }
+            }
+            return encoded;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package dev.webview.bridge;
+
+import java.lang.reflect.Type;
+import java.util.function.Supplier;
+
+/**
+ * Collects the members of a {@link JavascriptObject} instance.
+ * Filled by the reflective scanner or by a generated {@link BridgeDispatcher}.
+ */
+public final class BridgeMembers {
+    private final JavascriptObject target;
+
+    BridgeMembers(JavascriptObject target) {
+        this.target = target;
+    }
+
+    /**
+     * Registers a property.
+     *
+     * @param name Name of the property in JS
+     * @param type Declared type of the backing field, with its type arguments
+     *             (see {@link ArgumentBinder#parameterized}) so collections the page
+     *             assigns get typed elements
+     * @param options Settings of the property
+     * @param getter Reads the current value
+     * @param setter Stores a value already converted to {@code type}
+     */
+    public BridgeMembers property(String name, Type type, PropertyOptions options, Getter getter, Setter setter) {
+        target.addProperty(name, new JavascriptObject.FieldMapping(type, options, getter, setter));
+        return this;
+    }
+
+    /**
+     * Registers a function.
+     *
+     * @param name Name of the function in JS
+     * @param invoker Calls the method with the decoded arguments
+     */
+    public BridgeMembers function(String name, Invoker invoker) {
+        return function(name, CallPriority.NORMAL, invoker);
+    }
+
+    /**
+     * Registers a function with a declared priority. The invoker receives the
+     * raw JSON values (callbacks already turned into {@link JsCallback}).
+     *
+     * @param name Name of the function in JS
+     * @param priority Scheduling lane of calls that don't pick one
+     * @param invoker Calls the method with the decoded arguments
+     */
+    public BridgeMembers function(String name, CallPriority priority, Invoker invoker) {
+        return function(name, priority, ArgumentBinder.RAW, invoker);
+    }
+
+    /**
+     * Registers a function whose arguments are decoded into its parameter types.
+     *
+     * @param name Name of the function in JS
+     * @param priority Scheduling lane of calls that don't pick one
+     * @param binder Plan decoding the JSON arguments, built once per function
+     * @param invoker Calls the method with the decoded arguments
+     */
+    public BridgeMembers function(String name, CallPriority priority, ArgumentBinder binder, Invoker invoker) {
+        target.addFunction(name, new JavascriptObject.MethodMapping(priority, binder, invoker));
+        return this;
+    }
+
+    /**
+     * Registers a nested object, exposed as {@code parent.name}.
+     */
+    public BridgeMembers subObject(String name, Supplier<? extends JavascriptObject> getter) {
+        target.addSubObject(name, getter);
+        return this;
+    }
+
+    /**
+     * Settings of a property, mirroring {@link JavascriptValue}.
+     */
+    public static final class PropertyOptions {
+        final boolean allowGet;
+        final boolean allowSet;
+        final WritePolicy writePolicy;
+        final int writeInterval;
+
+        public PropertyOptions(boolean allowGet, boolean allowSet, WritePolicy writePolicy, int writeInterval) {
+            this.allowGet = allowGet;
+            this.allowSet = allowSet;
+            this.writePolicy = writePolicy;
+            this.writeInterval = writeInterval;
+        }
+
+        static PropertyOptions of(JavascriptValue annotation) {
+            return new PropertyOptions(annotation.allowGet(), annotation.allowSet(),
+                annotation.writePolicy(), annotation.writeInterval());
+        }
+    }
+
+    @FunctionalInterface
+    public interface Getter {
+        Object get() throws Throwable;
+    }
+
+    @FunctionalInterface
+    public interface Setter {
+        void set(Object value) throws Throwable;
+    }
+
+    @FunctionalInterface
+    public interface Invoker {
+        Object invoke(Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,93 @@
+package dev.webview.bridge;
+
+import dev.webview.NativeScript;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Source of the JS bridge runtime (BridgeScript.js).
+ *
+ * Kept in its own class so a native image can initialize it at build time
+ * and carry the script in the image heap instead of reading the resource on startup.
+ */
+final class BridgeScript {
+    static final String SOURCE = load();
+
+    // Single-line log statements, e.g. "if (LOG_LEVEL >= DEBUG) console.log(...);"
+    private static final Pattern LOG_STATEMENT = Pattern.compile("(?m)^[ \\t]*if \\(LOG_LEVEL >= (ERROR|WARN|INFO|DEBUG)\\) .*\\R");
+    private static final Pattern LOG_LEVEL = Pattern.compile("const LOG_LEVEL = \\d+;");
+
+    // Runtime pre-encoded in native memory, by script log level; never freed
+    private static final Map<Integer, NativeScript> RUNTIMES = new ConcurrentHashMap<>();
+
+    private BridgeScript() {}
+
+    /**
+     * The runtime for the given log level as native UTF-8, encoded once per
+     * process and shared by every bridge.
+     */
+    static NativeScript runtime(Level level) {
+        return RUNTIMES.computeIfAbsent(scriptLevel(level), key -> NativeScript.of(withLogLevel(level)));
+    }
+
+    /**
+     * The runtime with LOG_LEVEL set for the given level and all log
+     * statements above it removed, so disabled logging costs nothing in the page.
+     */
+    static String withLogLevel(Level level) {
+        int enabled = scriptLevel(level);
+        Matcher statements = LOG_STATEMENT.matcher(SOURCE);
+        StringBuilder script = new StringBuilder(SOURCE.length());
+        while (statements.find()) {
+            boolean keep = scriptLevel(statements.group(1)) <= enabled;
+            statements.appendReplacement(script, keep ? "$0" : "");
+        }
+        statements.appendTail(script);
+        return LOG_LEVEL.matcher(script).replaceFirst("const LOG_LEVEL = " + enabled + ";");
+    }
+
+    /**
+     * Most verbose level the logger has enabled, OFF if none.
+     */
+    static Level loggerLevel(System.Logger logger) {
+        for (Level level : new Level[] {Level.TRACE, Level.DEBUG, Level.INFO, Level.WARNING, Level.ERROR}) {
+            if (logger.isLoggable(level)) return level;
+        }
+        return Level.OFF;
+    }
+
+    private static int scriptLevel(Level level) {
+        switch (level) {
+            case OFF: return 0;
+            case ERROR: return 1;
+            case WARNING: return 2;
+            case INFO: return 3;
+            default: return 4; // ALL, TRACE, DEBUG
+        }
+    }
+
+    private static int scriptLevel(String name) {
+        switch (name) {
+            case "ERROR": return 1;
+            case "WARN": return 2;
+            case "INFO": return 3;
+            default: return 4;
+        }
+    }
+
+    private static String load() {
+        try (InputStream in = BridgeScript.class.getResourceAsStream("/dev/webview/bridge/BridgeScript.js")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException | NullPointerException e) {
+            System.getLogger(BridgeScript.class.getName()).log(Level.ERROR, "Failed to load BridgeScript.js", e);
+            return "";
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package dev.webview.bridge;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.System.Logger.Level;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Shared state mirrored into the page as {@code Bridge.store(name)}, see {@link WebviewBridge#store}.
+ *
+ * The state is a tree of string-keyed maps addressed by dot-separated paths
+ * ("user.name"). Each commit produces a new immutable {@link Snapshot} that
+ * shares every untouched subtree with the previous one, and sends only the
+ * paths it changed to the page, as one message applied there atomically.
+ * Values are serialized when committed, so they should not be mutated afterwards.
+ *
+ * <pre>
+ *   BridgeStore store = bridge.store("app");
+ *   store.commit(tx -&gt; {
+ *       tx.set("user.name", "Ada");
+ *       tx.set("user.online", true);
+ *   });
+ * </pre>
+ * In the page, {@code Bridge.store("app").subscribe("user", (user, previous) => ...)}
+ * is only called by commits that changed something under "user".
+ */
+public final class BridgeStore {
+    private static final System.Logger LOG = System.getLogger(BridgeStore.class.getName());
+
+    private final WebviewBridge bridge;
+    private final String name;
+    private volatile Snapshot snapshot = new Snapshot(0, Collections.emptyMap());
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Commits not yet sent to the page, as [from, to, ops] in version order
+    private final Queue<String> pendingCommits = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    BridgeStore(WebviewBridge bridge, String name) {
+        this.bridge = bridge;
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The current state; never changes once returned
+     */
+    public Snapshot get() {
+        return snapshot;
+    }
+
+    /**
+     * @return The value at a path of the current state, null if absent
+     */
+    public Object get(String path) {
+        return snapshot.get(path);
+    }
+
+    public Snapshot set(String path, Object value) {
+        return commit(tx -> tx.set(path, value));
+    }
+
+    public Snapshot remove(String path) {
+        return commit(tx -> tx.remove(path));
+    }
+
+    /**
+     * Applies the changes made to the transaction as one new version. Other
+     * commits wait meanwhile; Java subscribers and the page see either none
+     * or all of the changes. A commit that changes nothing keeps the version.
+     *
+     * @return The snapshot after the commit
+     */
+    public Snapshot commit(Consumer<Transaction> changes) {
+        List<Subscription> notify = new ArrayList<>();
+        Snapshot previous, next;
+        synchronized (this) {
+            previous = snapshot;
+            Transaction tx = new Transaction(previous.root);
+            changes.accept(tx);
+            if (tx.ops.isEmpty()) return previous;
+
+            next = new Snapshot(previous.version + 1, tx.root);
+            snapshot = next;
+
+            StringJoiner ops = new StringJoiner(",", "[", "]");
+            for (Op op : tx.ops) {
+                ops.add(op.json);
+            }
+            pendingCommits.add("[" + previous.version + "," + next.version + "," + ops + "]");
+
+            for (Subscription subscription : subscriptions) {
+                for (Op op : tx.ops) {
+                    if (overlaps(subscription.path, op.path)) {
+                        notify.add(subscription);
+                        break;
+                    }
+                }
+            }
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            bridge.webview().dispatch(this::flush);
+        }
+
+        for (Subscription subscription : notify) {
+            try {
+                subscription.listener.accept(next);
+            } catch (Exception e) {
+                LOG.log(Level.ERROR, () -> "Error in subscriber of store '" + name + "' at '" + subscription.path + "'", e);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Calls the listener with the new snapshot after each commit that changed
+     * something at, above or below the path ("" for every commit). Listeners
+     * run on the committing thread.
+     *
+     * @return Removes the subscription
+     */
+    public Runnable subscribe(String path, Consumer<Snapshot> listener) {
+        Subscription subscription = new Subscription(path, listener);
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    /**
+     * Sends the commits made since the last flush in one eval. Runs on the UI thread.
+     * Without a ready page they are dropped: the page gets a snapshot on READY.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        StringJoiner commits = new StringJoiner(",", "[", "]");
+        int count = 0;
+        String commit;
+        while ((commit = pendingCommits.poll()) != null) {
+            commits.add(commit);
+            count++;
+        }
+        if (count > 0) bridge.sendStoreCommits(name, commits.toString());
+    }
+
+    /**
+     * The current state as [version, state] for a page that (re)starts mirroring it.
+     */
+    String snapshotJson() {
+        Snapshot current = snapshot;
+        return "[" + current.version + "," + json(current.root) + "]";
+    }
+
+    /**
+     * Applies a commit requested by the page: ["s", path, value] and ["d", path] ops.
+     */
+    Snapshot commitFromJs(JSONArray ops) {
+        return commit(tx -> {
+            for (int i = 0; i < ops.length(); i++) {
+                JSONArray op = ops.getJSONArray(i);
+                if ("d".equals(op.getString(0))) {
+                    tx.remove(op.getString(1));
+                } else {
+                    tx.set(op.getString(1), fromJson(op.opt(2)));
+                }
+            }
+        });
+    }
+
+    private static Object fromJson(Object value) {
+        if (value == null || value == JSONObject.NULL) return null;
+        if (value instanceof JSONObject) return ((JSONObject) value).toMap();
+        if (value instanceof JSONArray) return ((JSONArray) value).toList();
+        return value;
+    }
+
+    /**
+     * The one encoding of values in commits and snapshots, so the page sees the
+     * same value whichever of the two it got it from.
+     */
+    private static String json(Object value) {
+        return JSONObject.valueToString(JSONObject.wrap(value));
+    }
+
+    static boolean overlaps(String a, String b) {
+        if (a.isEmpty() || b.isEmpty() || a.equals(b)) return true;
+        return (a.startsWith(b) && a.charAt(b.length()) == '.') || (b.startsWith(a) && b.charAt(a.length()) == '.');
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Enum;
+    }
+
+    private static String[] split(String path) {
+        if (path == null || path.isEmpty()) throw new IllegalArgumentException("Empty store path");
+        return path.split("\\.", -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object lookup(Map<String, Object> root, String[] keys) {
+        Object node = root;
+        for (String key : keys) {
+            if (!(node instanceof Map)) return null;
+            node = ((Map<String, Object>) node).get(key);
+        }
+        return node;
+    }
+
+    /**
+     * Copies the maps along the path with the value at its end (null: removed),
+     * sharing everything else with the given node.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> with(Object node, String[] keys, int index, Object value, boolean remove) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        if (node instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) node).entrySet()) {
+                copy.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+        }
+        String key = keys[index];
+        if (index == keys.length - 1) {
+            if (remove) copy.remove(key); else copy.put(key, value);
+        } else {
+            copy.put(key, with(copy.get(key), keys, index + 1, value, remove));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * An immutable version of the state.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final Map<String, Object> root;
+
+        Snapshot(long version, Map<String, Object> root) {
+            this.version = version;
+            this.root = root;
+        }
+
+        /**
+         * @return Number of commits this state is the result of
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return The value at a dot-separated path, null if absent
+         */
+        public Object get(String path) {
+            return lookup(root, split(path));
+        }
+
+        /**
+         * @return The whole state as unmodifiable nested maps
+         */
+        public Map<String, Object> getRoot() {
+            return root;
+        }
+    }
+
+    /**
+     * Changes of one commit. Reads see the changes made so far.
+     */
+    public static final class Transaction {
+        private Map<String, Object> root;
+        private final List<Op> ops = new ArrayList<>();
+
+        Transaction(Map<String, Object> root) {
+            this.root = root;
+        }
+
+        public Object get(String path) {
+            return lookup(root, split(path));
+        }
+
+        /**
+         * Sets the value at a path, replacing a non-map value on the way with a map.
+         */
+        public Transaction set(String path, Object value) {
+            String[] keys = split(path);
+            if (isScalar(value) && value.equals(lookup(root, keys))) return this; // unchanged
+            root = with(root, keys, 0, value, false);
+            record(new Op(path, "[\"s\"," + WebviewBridge.toJson(path) + "," + json(value) + "]"));
+            return this;
+        }
+
+        public Transaction remove(String path) {
+            String[] keys = split(path);
+            Object parent = keys.length > 1 ? lookup(root, Arrays.copyOf(keys, keys.length - 1)) : root;
+            if (!(parent instanceof Map) || !((Map<?, ?>) parent).containsKey(keys[keys.length - 1])) {
+                return this; // nothing there
+            }
+            root = with(root, keys, 0, null, true);
+            record(new Op(path, "[\"d\"," + WebviewBridge.toJson(path) + "]"));
+            return this;
+        }
+
+        private void record(Op op) {
+            // A later write at or above a path supersedes the earlier writes below it
+            ops.removeIf(earlier -> earlier.path.equals(op.path) || earlier.path.startsWith(op.path + "."));
+            ops.add(op);
+        }
+    }
+
+    private static final class Op {
+        final String path;
+        final String json;
+
+        Op(String path, String json) {
+            this.path = path;
+            this.json = json;
+        }
+    }
+
+    private static final class Subscription {
+        final String path;
+        final Consumer<Snapshot> listener;
+
+        Subscription(String path, Consumer<Snapshot> listener) {
+            this.path = path;
+            this.listener = listener;
+        }
+    }
+}
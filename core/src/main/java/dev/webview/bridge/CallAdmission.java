@@ -0,0 +1,43 @@
+package dev.webview.bridge;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * INVOKE calls of one page that were admitted and have not returned yet,
+ * in total and per object id. A new page starts with a fresh instance, so calls
+ * the previous page left hanging don't count against it.
+ *
+ * Acquired and released on the UI thread; the counts are read from anywhere.
+ */
+final class CallAdmission {
+    private final AtomicInteger total = new AtomicInteger();
+    private final Map<String, AtomicInteger> byObject = new ConcurrentHashMap<>();
+
+    /**
+     * Admits a call to the object if neither limit is reached.
+     */
+    boolean tryAcquire(String objectId, int maxPerObject, int maxTotal) {
+        if (total.get() >= maxTotal) return false;
+        AtomicInteger count = byObject.computeIfAbsent(objectId, id -> new AtomicInteger());
+        if (count.get() >= maxPerObject) return false;
+        count.incrementAndGet();
+        total.incrementAndGet();
+        return true;
+    }
+
+    void release(String objectId) {
+        total.decrementAndGet();
+        byObject.computeIfPresent(objectId, (id, count) -> count.decrementAndGet() > 0 ? count : null);
+    }
+
+    int inFlight() {
+        return total.get();
+    }
+
+    int inFlight(String objectId) {
+        AtomicInteger count = byObject.get(objectId);
+        return count != null ? count.get() : 0;
+    }
+}
@@ -0,0 +1,42 @@
+package dev.webview.bridge;
+
+import java.util.Locale;
+
+/**
+ * Scheduling lane of a call from JavaScript to a {@link JavascriptFunction}.
+ *
+ * Declared with {@link JavascriptFunction#priority()}, or chosen per call in JS
+ * with {@code obj.fn.withPriority('background')(...args)}.
+ */
+public enum CallPriority {
+    /**
+     * Runs as soon as its message arrives; while one is in flight the page
+     * holds back background calls. Meant for input handlers.
+     */
+    INTERACTIVE,
+
+    /**
+     * Runs as soon as its message arrives, in order with property reads and writes.
+     */
+    NORMAL,
+
+    /**
+     * Sent by the page when it is idle and queued in Java, where it runs in short
+     * slices between other messages. Meant for prefetching and bulk work.
+     */
+    BACKGROUND;
+
+    String jsName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return null for a name the page should not have sent
+     */
+    static CallPriority fromJs(String name) {
+        for (CallPriority priority : values()) {
+            if (priority.jsName().equals(name)) return priority;
+        }
+        return null;
+    }
+}
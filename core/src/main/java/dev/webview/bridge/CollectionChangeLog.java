@@ -0,0 +1,103 @@
+package dev.webview.bridge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records structural operations of an observable collection so they can be
+ * sent to JavaScript as patches instead of re-serializing the whole value.
+ *
+ * Every operation bumps the version. Each place the collection is exposed at
+ * (bridge + object + property) gets its own {@link Target} with the operations
+ * since it was last flushed. The log is also the lock guarding the collection.
+ */
+final class CollectionChangeLog {
+    // Past this many pending operations a full refetch is cheaper than the patch
+    static final int MAX_PENDING_OPS = 1024;
+
+    private long version = 0;
+    private final List<Target> targets = new ArrayList<>();
+
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Records one encoded operation, e.g. {@code ["i",3,"value"]}.
+     * Must be called while holding the lock, together with the mutation itself.
+     */
+    synchronized void record(String op) {
+        version++;
+        for (Target target : targets) {
+            if (target.ops == null) continue; // already waiting for a full refetch
+            if (target.ops.isEmpty()) {
+                target.bridge.schedulePatchFlush(target);
+            }
+            if (target.ops.size() >= MAX_PENDING_OPS) {
+                target.ops = null;
+            } else {
+                target.ops.add(op);
+            }
+        }
+    }
+
+    synchronized Target attach(WebviewBridge bridge, String objectId, String property) {
+        for (Target target : targets) {
+            if (target.bridge == bridge && target.objectId.equals(objectId) && target.property.equals(property)) {
+                return target;
+            }
+        }
+        Target target = new Target(this, bridge, objectId, property, version);
+        targets.add(target);
+        return target;
+    }
+
+    synchronized void detach(Target target) {
+        targets.remove(target);
+    }
+
+    /**
+     * Takes the pending operations of a target.
+     * @return The patch, or null if nothing changed since the last drain
+     */
+    synchronized Patch drain(Target target) {
+        if (target.ops != null && target.ops.isEmpty()) return null;
+        Patch patch = new Patch(target.baseVersion, version, target.ops);
+        target.baseVersion = version;
+        target.ops = new ArrayList<>();
+        return patch;
+    }
+
+    static final class Target {
+        final CollectionChangeLog log;
+        final WebviewBridge bridge;
+        final String objectId;
+        final String property;
+        private long baseVersion;
+        private List<String> ops = new ArrayList<>();
+
+        Target(CollectionChangeLog log, WebviewBridge bridge, String objectId, String property, long baseVersion) {
+            this.log = log;
+            this.bridge = bridge;
+            this.objectId = objectId;
+            this.property = property;
+            this.baseVersion = baseVersion;
+        }
+    }
+
+    /**
+     * Operations taking the JS copy from version {@code from} to {@code to}.
+     * {@code ops} is null if too many changes piled up and JS should refetch.
+     */
+    static final class Patch {
+        final long from;
+        final long to;
+        final List<String> ops;
+
+        Patch(long from, long to, List<String> ops) {
+            this.from = from;
+            this.to = to;
+            this.ops = ops;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package dev.webview.bridge;
+
+import org.json.JSONObject;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes lists of records or beans column by column instead of row by row.
+ *
+ * The field names are sent once, each column as an array, and columns of
+ * strings (or enums) with many repeated values as a dictionary plus indexes
+ * into it. The bridge runtime turns the result back into an array whose rows
+ * are decoded on first access, with the same fields as the row-by-row JSON:
+ * <pre>
+ *   {"__bridgeType":"columns","length":3,"fields":["id","status"],
+ *    "columns":[[1,2,3],{"dict":["open","done"],"codes":[0,0,1]}]}
+ * </pre>
+ * Only used once enabled with {@link WebviewBridge#setColumnarResults}.
+ */
+final class ColumnarEncoder {
+    // Below this, the schema costs about as much as it saves
+    static final int MIN_ROWS = 8;
+
+    private static final Map<Class<?>, Schema> SCHEMAS = new ConcurrentHashMap<>();
+    private static final Schema NOT_TABULAR = new Schema(new String[0], new Method[0]);
+
+    private ColumnarEncoder() {
+    }
+
+    /**
+     * @return The columnar JSON, or null if the collection is not a list of
+     *         at least MIN_ROWS records or beans of one class
+     */
+    static String encode(Collection<?> rows) {
+        if (rows.size() < MIN_ROWS) return null;
+        Iterator<?> iterator = rows.iterator();
+        Object first = iterator.next();
+        if (first == null) return null;
+        Class<?> type = first.getClass();
+        Schema schema = SCHEMAS.computeIfAbsent(type, ColumnarEncoder::schema);
+        if (schema == NOT_TABULAR) return null;
+
+        // Read the rows once, column-major
+        int count = rows.size();
+        Object[][] columns = new Object[schema.fields.length][count];
+        int row = 0;
+        for (Object value : rows) {
+            if (value == null || value.getClass() != type) return null;
+            for (int i = 0; i < schema.fields.length; i++) {
+                try {
+                    columns[i][row] = schema.accessors[i].invoke(value);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot read " + type.getName() + "." + schema.fields[i], e);
+                }
+            }
+            row++;
+        }
+
+        StringBuilder sb = new StringBuilder(count * schema.fields.length * 4);
+        sb.append("{\"__bridgeType\":\"columns\",\"length\":").append(count).append(",\"fields\":[");
+        for (int i = 0; i < schema.fields.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(JSONObject.quote(schema.fields[i]));
+        }
+        sb.append("],\"columns\":[");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) sb.append(',');
+            appendColumn(columns[i], sb);
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static void appendColumn(Object[] values, StringBuilder sb) {
+        // Strings repeating at least every other row go through a dictionary
+        Map<String, Integer> codes = new HashMap<>();
+        boolean strings = true;
+        for (Object value : values) {
+            if (value != null && !(value instanceof String) && !(value instanceof Enum)) {
+                strings = false;
+                break;
+            }
+            if (value != null) codes.putIfAbsent(text(value), codes.size());
+            if (codes.size() * 2 > values.length) {
+                strings = false;
+                break;
+            }
+        }
+
+        if (strings) {
+            String[] dictionary = new String[codes.size()];
+            codes.forEach((text, code) -> dictionary[code] = text);
+            sb.append("{\"dict\":[");
+            for (int i = 0; i < dictionary.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(JSONObject.quote(dictionary[i]));
+            }
+            sb.append("],\"codes\":[");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(values[i] == null ? -1 : codes.get(text(values[i])));
+            }
+            sb.append("]}");
+            return;
+        }
+
+        sb.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            appendValue(values[i], sb);
+        }
+        sb.append(']');
+    }
+
+    private static void appendValue(Object value, StringBuilder sb) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof String || value instanceof Enum) {
+            sb.append(JSONObject.quote(text(value)));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(JSONObject.valueToString(value));
+        } else if (value instanceof Collection) {
+            // Nested tables are encoded the same way
+            sb.append(WebviewBridge.toResultJson(value));
+        } else {
+            // What org.json makes of it in the row-by-row format (beans become objects)
+            sb.append(JSONObject.valueToString(JSONObject.wrap(value)));
+        }
+    }
+
+    private static String text(Object value) {
+        return value instanceof Enum ? ((Enum<?>) value).name() : (String) value;
+    }
+
+    /**
+     * Record components, or the bean getters org.json would serialize.
+     */
+    private static Schema schema(Class<?> type) {
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            String[] fields = new String[components.length];
+            Method[] accessors = new Method[components.length];
+            for (int i = 0; i < components.length; i++) {
+                fields[i] = components[i].getName();
+                accessors[i] = accessible(components[i].getAccessor());
+                if (accessors[i] == null) return NOT_TABULAR;
+            }
+            return fields.length > 0 ? new Schema(fields, accessors) : NOT_TABULAR;
+        }
+
+        if (type.isArray() || type.isEnum() || type.getName().startsWith("java.") || type.getName().startsWith("org.json.") ||
+            Iterable.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type) ||
+            CharSequence.class.isAssignableFrom(type) || JavascriptObject.class.isAssignableFrom(type)) {
+            return NOT_TABULAR;
+        }
+        List<String> fields = new ArrayList<>();
+        List<Method> accessors = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0 ||
+                method.getReturnType() == void.class || method.isBridge() || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String field = beanProperty(method);
+            if (field == null) continue;
+            Method accessor = accessible(method);
+            if (accessor == null) return NOT_TABULAR;
+            fields.add(field);
+            accessors.add(accessor);
+        }
+        if (fields.isEmpty()) return NOT_TABULAR;
+        return new Schema(fields.toArray(new String[0]), accessors.toArray(new Method[0]));
+    }
+
+    /**
+     * getFoo()/isFoo() to "foo", like JSONObject(Object bean).
+     */
+    private static String beanProperty(Method method) {
+        String name = method.getName();
+        String key;
+        if (name.startsWith("get") && name.length() > 3) {
+            if (name.equals("getDeclaringClass")) return null;
+            key = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2) {
+            key = name.substring(2);
+        } else {
+            return null;
+        }
+        if (!Character.isUpperCase(key.charAt(0))) return null;
+        if (key.length() == 1) return key.toLowerCase(Locale.ROOT);
+        if (!Character.isUpperCase(key.charAt(1))) return key.substring(0, 1).toLowerCase(Locale.ROOT) + key.substring(1);
+        return key;
+    }
+
+    private static Method accessible(Method method) {
+        return method.trySetAccessible() ? method : null;
+    }
+
+    private static final class Schema {
+        final String[] fields;
+        final Method[] accessors;
+
+        Schema(String[] fields, Method[] accessors) {
+            this.fields = fields;
+            this.accessors = accessors;
+        }
+    }
+}
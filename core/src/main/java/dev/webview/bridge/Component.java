@@ -0,0 +1,13 @@
+package dev.webview.bridge;
+
+/**
+ * UI rendered from Java state, mounted with {@link WebviewBridge#mount}.
+ */
+@FunctionalInterface
+public interface Component {
+    /**
+     * Renders the current state. Called on the UI thread whenever the root is
+     * invalidated; only the differences to the previous tree reach the page.
+     */
+    VNode render();
+}
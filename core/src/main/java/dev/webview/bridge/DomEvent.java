@@ -0,0 +1,44 @@
+package dev.webview.bridge;
+
+/**
+ * A DOM event from a page rendered by a {@link RenderRoot}, with the state of
+ * its target element.
+ */
+public final class DomEvent {
+    private final String type;
+    private final String value;
+    private final Boolean checked;
+    private final String key;
+
+    DomEvent(String type, String value, Boolean checked, String key) {
+        this.type = type;
+        this.value = value;
+        this.checked = checked;
+        this.key = key;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return The target's value (inputs, selects, textareas), or null
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return Whether the target checkbox/radio is checked, false for other targets
+     */
+    public boolean isChecked() {
+        return checked != null && checked;
+    }
+
+    /**
+     * @return The key of keyboard events, e.g. "Enter", or null
+     */
+    public String getKey() {
+        return key;
+    }
+}
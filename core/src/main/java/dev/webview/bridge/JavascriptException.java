@@ -0,0 +1,10 @@
+package dev.webview.bridge;
+
+/**
+ * Error thrown by JavaScript code called from Java through the bridge.
+ */
+public class JavascriptException extends RuntimeException {
+    public JavascriptException(String message) {
+        super(message);
+    }
+}
@@ -7,6 +7,11 @@ import java.lang.annotation.Target;
 
 /**
  * Marks a method as callable from JavaScript.
+ *
+ * Parameters of type {@link JsCallback} or {@code Consumer<T>} receive JS
+ * functions passed by the page; they stay callable until the method returns.
+ * If the method returns a CompletionStage, the JS promise resolves with its
+ * value and callbacks stay callable until it completes.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
@@ -15,4 +20,9 @@ public @interface JavascriptFunction {
      * Custom name for the function in JS. Defaults to method name.
      */
     String value() default "";
+
+    /**
+     * Scheduling lane of calls to this function, unless JS picks one per call.
+     */
+    CallPriority priority() default CallPriority.NORMAL;
 }
@@ -1,39 +1,59 @@
 package dev.webview.bridge;
 
+import org.json.JSONArray;
+
+import java.lang.System.Logger.Level;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Base class for objects exposed to JavaScript.
  * Subclass and use @JavascriptFunction/@JavascriptValue annotations.
  */
 public abstract class JavascriptObject {
+    private static final System.Logger LOG = System.getLogger(JavascriptObject.class.getName());
+
     private final String id = UUID.randomUUID().toString();
-    private final Map<String, FieldMapping> properties = new HashMap<>();
-    private final Map<String, MethodMapping> functions = new HashMap<>();
-    private final Map<String, Field> subObjects = new HashMap<>();
+    private final Map<String, FieldMapping> properties = new LinkedHashMap<>();
+    private final Map<String, MethodMapping> functions = new LinkedHashMap<>();
+    private final Map<String, Supplier<? extends JavascriptObject>> subObjects = new LinkedHashMap<>();
     private WebviewBridge bridge = null;
 
     public JavascriptObject() {
-        scanAnnotations();
+        BridgeDispatcher dispatcher = BridgeDispatchers.find(this.getClass());
+        if (dispatcher != null) {
+            // Generated at build time, no reflection needed
+            dispatcher.describe(this, new BridgeMembers(this));
+        } else {
+            scanAnnotations(new BridgeMembers(this));
+        }
     }
 
-    private void scanAnnotations() {
+    private void scanAnnotations(BridgeMembers members) {
         // Scan fields
         for (Field field : this.getClass().getDeclaredFields()) {
             if (Modifier.isStatic(field.getModifiers())) continue;
 
             if (JavascriptObject.class.isAssignableFrom(field.getType())) {
                 field.setAccessible(true);
-                this.subObjects.put(field.getName(), field);
+                members.subObject(field.getName(), () -> {
+                    try {
+                        return (JavascriptObject) field.get(this);
+                    } catch (IllegalAccessException e) {
+                        LOG.log(Level.ERROR, () -> "Cannot read sub-object field " + field.getName(), e);
+                        return null;
+                    }
+                });
             } else if (field.isAnnotationPresent(JavascriptValue.class)) {
                 field.setAccessible(true);
                 JavascriptValue annotation = field.getAnnotation(JavascriptValue.class);
                 String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
-                this.properties.put(name, new FieldMapping(this, field, annotation));
+                members.property(name, field.getGenericType(), BridgeMembers.PropertyOptions.of(annotation),
+                    () -> field.get(this), value -> field.set(this, value));
             }
         }
 
@@ -45,11 +65,23 @@ public abstract class JavascriptObject {
                 method.setAccessible(true);
                 JavascriptFunction annotation = method.getAnnotation(JavascriptFunction.class);
                 String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
-                this.functions.put(name, new MethodMapping(this, method));
+                members.function(name, annotation.priority(), ArgumentBinder.of(method), args -> method.invoke(this, args));
             }
         }
     }
 
+    void addProperty(String name, FieldMapping mapping) {
+        properties.put(name, mapping);
+    }
+
+    void addFunction(String name, MethodMapping mapping) {
+        functions.put(name, mapping);
+    }
+
+    void addSubObject(String name, Supplier<? extends JavascriptObject> getter) {
+        subObjects.put(name, getter);
+    }
+
     public String getId() {
         return id;
     }
@@ -58,29 +90,50 @@ public abstract class JavascriptObject {
         this.bridge = bridge;
         bridge.registerObject(name, this);
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("window.Bridge.__internal.defineObject('%s', '%s');\n", name, id));
+        // Sub-objects are not walked here: JS exposes them on first access,
+        // from the schemas of their declared types
+        ObjectType type = ObjectType.of(getClass());
+        StringBuilder sb = new StringBuilder(bridge.typeDefinitions(type));
+        sb.append("window.Bridge.__internal.defineObject('").append(name).append("', '").append(id).append("');\n");
+        sb.append("window.").append(name).append(".__internal.defineMembers(").append(type.memberScript).append(");\n");
+        String nulls = nullSubObjectsJson();
+        if (nulls != null) sb.append("window.").append(name).append(".__internal.setNullSubObjects(").append(nulls).append(");\n");
+        return sb.toString();
+    }
 
-        for (String funcName : functions.keySet()) {
-            sb.append(String.format("window.%s.__internal.defineFunction('%s');\n", name, funcName));
+    /**
+     * Sub-object fields that are null right now, as a JSON array, or null if
+     * there are none. The page shows them as null instead of as a stub.
+     */
+    String nullSubObjectsJson() {
+        StringJoiner names = new StringJoiner(",", "[", "]");
+        int count = 0;
+        for (Map.Entry<String, Supplier<? extends JavascriptObject>> sub : subObjects.entrySet()) {
+            if (sub.getValue().get() == null) {
+                names.add(WebviewBridge.toJson(sub.getKey()));
+                count++;
+            }
         }
+        return count > 0 ? names.toString() : null;
+    }
 
-        for (String propName : properties.keySet()) {
-            sb.append(String.format("window.%s.__internal.defineProperty('%s');\n", name, propName));
-        }
+    /**
+     * Called when JS first accesses this object as a sub-object of an exposed one.
+     */
+    void attach(WebviewBridge bridge) {
+        this.bridge = bridge;
+    }
 
-        for (Map.Entry<String, Field> sub : subObjects.entrySet()) {
-            try {
-                JavascriptObject subObj = (JavascriptObject) sub.getValue().get(this);
-                if (subObj != null) {
-                    sb.append(subObj.getInitScript(name + "." + sub.getKey(), bridge));
-                }
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            }
-        }
+    /**
+     * Current value of a sub-object field, null if there is none.
+     */
+    JavascriptObject getSubObject(String name) {
+        Supplier<? extends JavascriptObject> getter = subObjects.get(name);
+        return getter != null ? getter.get() : null;
+    }
 
-        return sb.toString();
+    boolean hasProperty(String property) {
+        return properties.containsKey(property);
     }
 
     Object get(String property) throws Throwable {
@@ -95,36 +148,63 @@ public abstract class JavascriptObject {
         mapping.set(value);
     }
 
-    Object invoke(String function, Object[] args) throws Throwable {
+    Object invoke(String function, JSONArray args, ArgumentBinder.Callbacks callbacks) throws Throwable {
         MethodMapping mapping = functions.get(function);
         if (mapping == null) throw new NoSuchMethodException(function);
-        return mapping.invoke(args);
+        return mapping.invoke(args, callbacks);
     }
 
-    private static class FieldMapping {
-        private final Object instance;
-        private final Field field;
-        private final JavascriptValue annotation;
+    /**
+     * Declared priority of a function, NORMAL if unknown.
+     */
+    CallPriority priorityOf(String function) {
+        MethodMapping mapping = functions.get(function);
+        return mapping != null ? mapping.priority : CallPriority.NORMAL;
+    }
+
+    static class FieldMapping {
+        private final Class<?> type;
+        private final Type genericType;
+        private final BridgeMembers.PropertyOptions options;
+        private final BridgeMembers.Getter getter;
+        private final BridgeMembers.Setter setter;
+
+        FieldMapping(Type genericType, BridgeMembers.PropertyOptions options, BridgeMembers.Getter getter, BridgeMembers.Setter setter) {
+            this.type = ArgumentBinder.rawType(genericType);
+            this.genericType = genericType;
+            this.options = options;
+            this.getter = getter;
+            this.setter = setter;
+        }
 
-        FieldMapping(Object instance, Field field, JavascriptValue annotation) {
-            this.instance = instance;
-            this.field = field;
-            this.annotation = annotation;
+        /**
+         * @return The write policy as a JSON object, or "null" for immediate writes
+         */
+        static String writePolicyJson(WritePolicy writePolicy, int writeInterval) {
+            if (writePolicy == WritePolicy.IMMEDIATE) return "null";
+            return "{\"policy\":\"" + writePolicy.name().toLowerCase(Locale.ROOT) + "\",\"interval\":" + writeInterval + "}";
         }
 
-        Object get() throws IllegalAccessException {
-            if (!annotation.allowGet()) throw new UnsupportedOperationException("GET not allowed");
-            return field.get(instance);
+        Object get() throws Throwable {
+            if (!options.allowGet) throw new UnsupportedOperationException("GET not allowed");
+            return getter.get();
         }
 
-        void set(Object value) throws IllegalAccessException {
-            if (!annotation.allowSet()) throw new UnsupportedOperationException("SET not allowed");
+        void set(Object value) throws Throwable {
+            if (!options.allowSet) throw new UnsupportedOperationException("SET not allowed");
+            
+            // Observable collections are updated in place so the change is recorded,
+            // with the elements converted to the field's element type
+            Object current = getter.get();
+            if (current instanceof ObservableCollection && value != null && !(value instanceof ObservableCollection)) {
+                ((ObservableCollection) current).assign(ArgumentBinder.decode(value, genericType));
+                return;
+            }
             
             // Convert value to the correct type if needed
-            Class<?> fieldType = field.getType();
-            Object convertedValue = convertType(value, fieldType);
+            Object convertedValue = convertType(value, type);
             
-            field.set(instance, convertedValue);
+            setter.set(convertedValue);
         }
         
         private Object convertType(Object value, Class<?> targetType) {
@@ -152,17 +232,19 @@ public abstract class JavascriptObject {
         }
     }
 
-    private static class MethodMapping {
-        private final Object instance;
-        private final Method method;
+    static class MethodMapping {
+        final CallPriority priority;
+        private final ArgumentBinder binder;
+        private final BridgeMembers.Invoker invoker;
 
-        MethodMapping(Object instance, Method method) {
-            this.instance = instance;
-            this.method = method;
+        MethodMapping(CallPriority priority, ArgumentBinder binder, BridgeMembers.Invoker invoker) {
+            this.priority = priority;
+            this.binder = binder;
+            this.invoker = invoker;
         }
 
-        Object invoke(Object[] args) throws InvocationTargetException, IllegalAccessException {
-            return method.invoke(instance, args);
+        Object invoke(JSONArray args, ArgumentBinder.Callbacks callbacks) throws Throwable {
+            return invoker.invoke(binder.bind(args, callbacks));
         }
     }
 }
@@ -7,6 +7,11 @@ import java.lang.annotation.Target;
 
 /**
  * Marks a field as accessible/observable from JavaScript.
+ *
+ * JS fetches the value on first read and caches it; changes made in Java reach
+ * the page through {@link WebviewBridge#emitPropertyUpdate} (observable
+ * collections send patches by themselves). {@code obj.__internal.refresh(name)}
+ * refetches explicitly.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
@@ -25,4 +30,14 @@ public @interface JavascriptValue {
      * Allow writing this property from JS.
      */
     boolean allowSet() default true;
+
+    /**
+     * How writes from JS are coalesced before being sent to Java.
+     */
+    WritePolicy writePolicy() default WritePolicy.IMMEDIATE;
+
+    /**
+     * Interval in milliseconds for {@link WritePolicy#THROTTLE} and {@link WritePolicy#DEBOUNCE}.
+     */
+    int writeInterval() default 100;
 }
@@ -0,0 +1,50 @@
+package dev.webview.bridge;
+
+import java.util.function.Consumer;
+
+/**
+ * A JavaScript function passed as an argument to a {@link JavascriptFunction}.
+ *
+ * Invocations are sent only to the calling page function (not to every
+ * {@code Bridge.on} listener) and are batched with other callbacks issued in
+ * the same UI thread turn. The handle is released automatically once the Java
+ * method returns, or once its returned CompletionStage completes; later
+ * invocations are dropped.
+ *
+ * Parameters may be declared as {@code JsCallback} or as {@code Consumer<T>}.
+ */
+public final class JsCallback implements Consumer<Object> {
+    private final WebviewBridge bridge;
+    private final long handle;
+    private volatile boolean released = false;
+
+    JsCallback(WebviewBridge bridge, long handle) {
+        this.bridge = bridge;
+        this.handle = handle;
+    }
+
+    /**
+     * Calls the JS function with the given arguments (JSON serialized).
+     * Safe to call from any thread.
+     *
+     * @return false if the callback was already released and the call was dropped
+     */
+    public boolean invoke(Object... args) {
+        if (released) return false;
+        bridge.queueCallback(handle, args);
+        return true;
+    }
+
+    @Override
+    public void accept(Object value) {
+        invoke(value);
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    void release() {
+        released = true;
+    }
+}
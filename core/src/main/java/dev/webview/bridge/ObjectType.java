@@ -0,0 +1,97 @@
+package dev.webview.bridge;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member schema of a {@link JavascriptObject} class, sent to JS once per type.
+ *
+ * Sub-objects are exposed lazily: JS builds a stub from the schema of the
+ * sub-object's declared type on first access, so only the part of an object
+ * tree the page actually touches costs anything. If the instance turns out to
+ * be of another class, the EXPOSE reply adds the members of that class.
+ */
+final class ObjectType {
+    private static final Map<Class<?>, ObjectType> TYPES = new ConcurrentHashMap<>();
+
+    final Class<? extends JavascriptObject> type;
+    // Arguments of the JS defineMembers()/defineType() calls: functions, properties, sub-objects
+    final String memberScript;
+    final Map<String, Class<? extends JavascriptObject>> subObjects;
+
+    private ObjectType(Class<? extends JavascriptObject> type, String memberScript,
+                       Map<String, Class<? extends JavascriptObject>> subObjects) {
+        this.type = type;
+        this.subObjects = subObjects;
+        StringJoiner subs = new StringJoiner(",", "{", "}");
+        for (Map.Entry<String, Class<? extends JavascriptObject>> sub : subObjects.entrySet()) {
+            subs.add(WebviewBridge.toJson(sub.getKey()) + ":" + WebviewBridge.toJson(key(sub.getValue())));
+        }
+        this.memberScript = memberScript + ", " + subs;
+    }
+
+    static ObjectType of(Class<? extends JavascriptObject> type) {
+        return TYPES.computeIfAbsent(type, ObjectType::load);
+    }
+
+    String key() {
+        return key(type);
+    }
+
+    private static String key(Class<?> type) {
+        return type.getName();
+    }
+
+    private static ObjectType load(Class<?> rawType) {
+        @SuppressWarnings("unchecked")
+        Class<? extends JavascriptObject> type = (Class<? extends JavascriptObject>) rawType;
+        BridgeDispatcher dispatcher = BridgeDispatchers.find(type);
+        if (dispatcher != null) {
+            return new ObjectType(type, dispatcher.memberScript(), dispatcher.subObjectTypes());
+        }
+        return scan(type);
+    }
+
+    /**
+     * Same members JavascriptObject registers for an instance, read from the class.
+     */
+    @SuppressWarnings("unchecked")
+    private static ObjectType scan(Class<? extends JavascriptObject> type) {
+        StringJoiner functions = new StringJoiner(",", "[", "]");
+        StringJoiner properties = new StringJoiner(",", "{", "}");
+        Map<String, Class<? extends JavascriptObject>> subObjects = new LinkedHashMap<>();
+
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+
+            if (JavascriptObject.class.isAssignableFrom(field.getType())) {
+                subObjects.put(field.getName(), (Class<? extends JavascriptObject>) field.getType());
+            } else if (field.isAnnotationPresent(JavascriptValue.class)) {
+                JavascriptValue annotation = field.getAnnotation(JavascriptValue.class);
+                String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
+                properties.add(WebviewBridge.toJson(name) + ":" +
+                    JavascriptObject.FieldMapping.writePolicyJson(annotation.writePolicy(), annotation.writeInterval()));
+            }
+        }
+
+        for (Method method : type.getDeclaredMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) continue;
+
+            if (method.isAnnotationPresent(JavascriptFunction.class)) {
+                JavascriptFunction annotation = method.getAnnotation(JavascriptFunction.class);
+                String name = annotation.value().isEmpty() ? method.getName() : annotation.value();
+                functions.add(annotation.priority() == CallPriority.NORMAL
+                    ? WebviewBridge.toJson(name)
+                    : "[" + WebviewBridge.toJson(name) + ",\"" + annotation.priority().jsName() + "\"]");
+            }
+        }
+
+        return new ObjectType(type, functions + ", " + properties, Collections.unmodifiableMap(subObjects));
+    }
+}
@@ -0,0 +1,15 @@
+package dev.webview.bridge;
+
+/**
+ * Collection whose structural changes are synchronized to JavaScript as patches.
+ */
+interface ObservableCollection {
+    CollectionChangeLog changes();
+
+    /**
+     * Replaces the whole content with a value received from JavaScript, already
+     * converted to the declared type of the field by {@link ArgumentBinder}
+     * (raw JSON if that type has no element types).
+     */
+    void assign(Object value);
+}
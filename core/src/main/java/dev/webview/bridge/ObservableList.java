@@ -0,0 +1,132 @@
+package dev.webview.bridge;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * List for {@link JavascriptValue} fields that sends only its changes to JavaScript.
+ *
+ * Inserts, removals, sets and moves are recorded and applied to the cached copy
+ * in the page in batches, so an update costs the size of the change rather than
+ * the size of the list.
+ *
+ * <pre>
+ * &#64;JavascriptValue
+ * public List&lt;String&gt; items = new ObservableList&lt;&gt;();
+ * </pre>
+ */
+public class ObservableList<E> extends AbstractList<E> implements RandomAccess, ObservableCollection {
+    private final List<E> items;
+    private final CollectionChangeLog changes = new CollectionChangeLog();
+
+    public ObservableList() {
+        this.items = new ArrayList<>();
+    }
+
+    public ObservableList(Collection<? extends E> initial) {
+        this.items = new ArrayList<>(initial);
+    }
+
+    @Override
+    public E get(int index) {
+        synchronized (changes) {
+            return items.get(index);
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (changes) {
+            return items.size();
+        }
+    }
+
+    @Override
+    public void add(int index, E element) {
+        synchronized (changes) {
+            items.add(index, element);
+            modCount++;
+            changes.record("[\"i\"," + index + "," + JSONObject.valueToString(JSONObject.wrap(element)) + "]");
+        }
+    }
+
+    @Override
+    public E set(int index, E element) {
+        synchronized (changes) {
+            E previous = items.set(index, element);
+            changes.record("[\"s\"," + index + "," + JSONObject.valueToString(JSONObject.wrap(element)) + "]");
+            return previous;
+        }
+    }
+
+    @Override
+    public E remove(int index) {
+        synchronized (changes) {
+            E removed = items.remove(index);
+            modCount++;
+            changes.record("[\"r\"," + index + ",1]");
+            return removed;
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        synchronized (changes) {
+            items.subList(fromIndex, toIndex).clear();
+            modCount++;
+            changes.record("[\"r\"," + fromIndex + "," + (toIndex - fromIndex) + "]");
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (changes) {
+            items.clear();
+            modCount++;
+            changes.record("[\"c\"]");
+        }
+    }
+
+    /**
+     * Moves an element to another position, sent as a single operation.
+     *
+     * @param from Current index of the element
+     * @param to Index of the element after the move
+     */
+    public void move(int from, int to) {
+        synchronized (changes) {
+            items.add(to, items.remove(from));
+            modCount++;
+            changes.record("[\"m\"," + from + "," + to + "]");
+        }
+    }
+
+    /**
+     * Replaces the whole content, sent as a single operation.
+     */
+    public void setAll(Collection<? extends E> elements) {
+        synchronized (changes) {
+            items.clear();
+            items.addAll(elements);
+            modCount++;
+            changes.record("[\"a\"," + WebviewBridge.toJson(items) + "]");
+        }
+    }
+
+    @Override
+    public CollectionChangeLog changes() {
+        return changes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void assign(Object value) {
+        setAll(value instanceof JSONArray ? (List<E>) ((JSONArray) value).toList() : (Collection<E>) value);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.webview.bridge;
+
+import org.json.JSONObject;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map for {@link JavascriptValue} fields that sends only its changes to JavaScript.
+ *
+ * Puts and removals are recorded and applied to the cached object in the page
+ * in batches. Keys are converted with {@link String#valueOf(Object)} on the JS side.
+ */
+public class ObservableMap<K, V> extends AbstractMap<K, V> implements ObservableCollection {
+    private final Map<K, V> entries;
+    private final CollectionChangeLog changes = new CollectionChangeLog();
+
+    public ObservableMap() {
+        this.entries = new LinkedHashMap<>();
+    }
+
+    public ObservableMap(Map<? extends K, ? extends V> initial) {
+        this.entries = new LinkedHashMap<>(initial);
+    }
+
+    @Override
+    public V get(Object key) {
+        synchronized (changes) {
+            return entries.get(key);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        synchronized (changes) {
+            return entries.containsKey(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (changes) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        synchronized (changes) {
+            V previous = entries.put(key, value);
+            changes.record("[\"p\"," + WebviewBridge.toJson(String.valueOf(key)) + "," + JSONObject.valueToString(JSONObject.wrap(value)) + "]");
+            return previous;
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        synchronized (changes) {
+            if (!entries.containsKey(key)) return null;
+            V removed = entries.remove(key);
+            changes.record("[\"d\"," + WebviewBridge.toJson(String.valueOf(key)) + "]");
+            return removed;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (changes) {
+            entries.clear();
+            changes.record("[\"c\"]");
+        }
+    }
+
+    /**
+     * Replaces the whole content, sent as a single operation.
+     */
+    public void setAll(Map<? extends K, ? extends V> content) {
+        synchronized (changes) {
+            entries.clear();
+            entries.putAll(content);
+            changes.record("[\"a\"," + WebviewBridge.toJson(entries) + "]");
+        }
+    }
+
+    /**
+     * Read-only view; mutate through {@link #put}, {@link #remove} and {@link #clear}
+     * so every change is recorded.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(entries).entrySet();
+    }
+
+    @Override
+    public CollectionChangeLog changes() {
+        return changes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void assign(Object value) {
+        setAll(value instanceof JSONObject ? (Map<K, V>) ((JSONObject) value).toMap() : (Map<K, V>) value);
+    }
+}
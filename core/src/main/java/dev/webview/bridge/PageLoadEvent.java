@@ -0,0 +1,96 @@
+package dev.webview.bridge;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event with the stage offsets of a {@link PageLoadTimeline}, from its
+ * earliest stage. Stages that were not reached are N/A.
+ */
+@Name("dev.webview.PageLoad")
+@Label("Page Load")
+@Category({"Webview", "Bridge"})
+@Description("Timeline of a page load in a webview with a WebviewBridge")
+@StackTrace(false)
+final class PageLoadEvent extends Event {
+    @Label("Generation")
+    String generation;
+
+    @Label("Webview Create")
+    @Description("Duration of webview_create, for the first page of a window")
+    @Timespan(Timespan.NANOSECONDS)
+    long webviewCreate;
+
+    @Label("Runtime Start")
+    @Timespan(Timespan.NANOSECONDS)
+    long runtimeStart;
+
+    @Label("Runtime Parsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long runtimeParsed;
+
+    @Label("Objects Defined")
+    @Timespan(Timespan.NANOSECONDS)
+    long objectsDefined;
+
+    @Label("DOM Content Loaded")
+    @Timespan(Timespan.NANOSECONDS)
+    long domContentLoaded;
+
+    @Label("Bridge Ready")
+    @Timespan(Timespan.NANOSECONDS)
+    long bridgeReady;
+
+    @Label("First Sync")
+    @Timespan(Timespan.NANOSECONDS)
+    long firstSync;
+
+    @Label("Load")
+    @Timespan(Timespan.NANOSECONDS)
+    long load;
+
+    @Label("Total")
+    @Timespan(Timespan.NANOSECONDS)
+    long total;
+
+    @Label("Init Scripts")
+    @DataAmount
+    long initScriptBytes;
+
+    @Label("Property Fetches")
+    int propertyFetches;
+
+    private static final long NOT_REACHED = Long.MIN_VALUE;
+
+    /**
+     * Commits the timeline if the event is enabled. Loading this class fails
+     * with a LinkageError on runtime images without jdk.jfr.
+     */
+    static void commit(PageLoadTimeline timeline) {
+        PageLoadEvent event = new PageLoadEvent();
+        if (!event.isEnabled()) return;
+        event.generation = timeline.getGeneration();
+        event.webviewCreate = nanos(timeline.getOffsetMillis("webview.created") - timeline.getOffsetMillis("webview.create"));
+        event.runtimeStart = nanos(timeline.getOffsetMillis("runtime.start"));
+        event.runtimeParsed = nanos(timeline.getOffsetMillis("runtime.parsed"));
+        event.objectsDefined = nanos(timeline.getOffsetMillis("objects.defined"));
+        event.domContentLoaded = nanos(timeline.getOffsetMillis("domContentLoaded"));
+        event.bridgeReady = nanos(timeline.getOffsetMillis("bridge.ready"));
+        event.firstSync = nanos(timeline.getOffsetMillis("firstSync"));
+        event.load = nanos(timeline.getOffsetMillis("load"));
+        event.total = nanos(timeline.getTotalMillis());
+        event.initScriptBytes = timeline.getInitScriptBytes();
+        event.propertyFetches = timeline.getPropertyFetches();
+        event.commit();
+    }
+
+    private static long nanos(double millis) {
+        return Double.isNaN(millis) ? NOT_REACHED : Math.round(millis * 1e6);
+    }
+}
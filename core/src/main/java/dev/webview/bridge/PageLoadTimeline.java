@@ -0,0 +1,145 @@
+package dev.webview.bridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Where the time of one page load went, from the Java calls that started it
+ * to the page's first property sync. See {@link WebviewBridge#setLoadTimelineListener}.
+ *
+ * Stages reported by Java:
+ * <pre>
+ *   webview.create       webview_create called (first page of a window only)
+ *   webview.created      webview_create returned
+ *   bridge.created       WebviewBridge constructed, runtime registered as init script
+ *   navigate             navigate()/setHtml() called
+ *   bridge.loading       the runtime's LOADING message handled
+ *   bridge.ready         READY received (DOMContentLoaded in the page)
+ *   bridge.ready.sent    buffered events, store snapshots and views sent
+ * </pre>
+ * Stages reported by the page (performance marks):
+ * <pre>
+ *   navigationStart      performance.timeOrigin
+ *   responseEnd          document received
+ *   runtime.start        BridgeScript.js started executing
+ *   runtime.parsed       BridgeScript.js done
+ *   objects.defined      last exposed object defined by the init scripts
+ *   domInteractive, domContentLoaded, load
+ *   firstSync.start      first property GET sent
+ *   firstSync            first property GET answered
+ * </pre>
+ * Java and page times are both taken from the system clock, so they share one axis.
+ */
+public final class PageLoadTimeline {
+    private final String generation;
+    private final double startMillis;
+    private final List<Stage> stages;
+    private final long initScriptBytes;
+    private final int propertyFetches;
+
+    PageLoadTimeline(String generation, List<Stage> stages, long initScriptBytes, int propertyFetches) {
+        List<Stage> sorted = new ArrayList<>(stages);
+        sorted.sort(Comparator.comparingDouble(stage -> stage.epochMillis));
+        this.generation = generation;
+        this.startMillis = sorted.isEmpty() ? 0 : sorted.get(0).epochMillis;
+        this.stages = Collections.unmodifiableList(sorted);
+        this.initScriptBytes = initScriptBytes;
+        this.propertyFetches = propertyFetches;
+    }
+
+    /**
+     * @return The page load this timeline belongs to
+     */
+    public String getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return Epoch millis of the earliest stage
+     */
+    public double getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return The stages in time order
+     */
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    /**
+     * @return Millis from the start to the stage, NaN if it was not reached or reported
+     */
+    public double getOffsetMillis(String stage) {
+        for (Stage s : stages) {
+            if (s.name.equals(stage)) return s.epochMillis - startMillis;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * @return Millis from the start to the last stage
+     */
+    public double getTotalMillis() {
+        return stages.isEmpty() ? 0 : stages.get(stages.size() - 1).epochMillis - startMillis;
+    }
+
+    /**
+     * @return Size of the scripts the bridge registered to run on each page load (runtime and objects)
+     */
+    public long getInitScriptBytes() {
+        return initScriptBytes;
+    }
+
+    /**
+     * @return Property GETs the page sent until it reported the timeline
+     */
+    public int getPropertyFetches() {
+        return propertyFetches;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "page load %s: %.1f ms, %d bytes of init scripts, %d property fetches%n",
+            generation, getTotalMillis(), initScriptBytes, propertyFetches));
+        double previous = startMillis;
+        for (Stage stage : stages) {
+            sb.append(String.format(Locale.ROOT, "  %9.1f ms  +%8.1f ms  %-5s %s%n",
+                stage.epochMillis - startMillis, stage.epochMillis - previous, stage.source, stage.name));
+            previous = stage.epochMillis;
+        }
+        return sb.toString();
+    }
+
+    public static final class Stage {
+        private final String name;
+        private final String source;
+        private final double epochMillis;
+
+        Stage(String name, String source, double epochMillis) {
+            this.name = name;
+            this.source = source;
+            this.epochMillis = epochMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return "java" or "page"
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public double getEpochMillis() {
+            return epochMillis;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package dev.webview.bridge;
+
+import java.lang.System.Logger.Level;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Component} rendered into an element of the page, see {@link WebviewBridge#mount}.
+ *
+ * Each render is diffed against the previous tree in Java and only the
+ * resulting DOM operations are sent, in one eval. DOM events of the rendered
+ * nodes come back through the bridge and trigger a re-render.
+ *
+ * Patch operations, applied in order by the bridge runtime (node 0 is the container):
+ * <pre>
+ *   ["x"]                          clear the container
+ *   ["i", parent, before, node]    insert a new node before a sibling (null: append)
+ *   ["m", parent, id, before]      move an existing node
+ *   ["r", id]                      remove a node and its subtree
+ *   ["t", id, text]                set the text of a text node
+ *   ["a", id, name, value]         set an attribute (null: remove it)
+ *   ["e", id, type, listen]        start or stop forwarding an event type
+ * </pre>
+ * New nodes are sent as {@code [id, "#text", text]} or {@code [id, tag, attributes, events, children]}.
+ */
+public final class RenderRoot {
+    private static final System.Logger LOG = System.getLogger(RenderRoot.class.getName());
+
+    private final WebviewBridge bridge;
+    private final String id;
+    private final String selector;
+    private final Component component;
+    private final AtomicBoolean renderScheduled = new AtomicBoolean(false);
+    private volatile boolean unmounted = false;
+
+    // Last tree sent to the page, null if the page shows nothing of it yet
+    private VNode tree = null;
+    private final Map<Integer, VNode> nodesById = new HashMap<>();
+    private int nextNodeId = 1;
+
+    RenderRoot(WebviewBridge bridge, String id, String selector, Component component) {
+        this.bridge = bridge;
+        this.id = id;
+        this.selector = selector;
+        this.component = component;
+    }
+
+    public String getSelector() {
+        return selector;
+    }
+
+    /**
+     * Schedules a re-render on the UI thread. Safe to call from any thread;
+     * invalidations before the render runs are coalesced.
+     */
+    public void invalidate() {
+        if (unmounted) return;
+        if (renderScheduled.compareAndSet(false, true)) {
+            bridge.webview().dispatch(this::render);
+        }
+    }
+
+    /**
+     * Stops rendering and empties the container.
+     */
+    public void unmount() {
+        unmounted = true;
+        bridge.webview().dispatch(() -> {
+            bridge.removeRenderRoot(id);
+            if (tree != null) {
+                tree = null;
+                nodesById.clear();
+                bridge.sendDomPatches(id, selector, "[\"x\"]");
+            }
+        });
+    }
+
+    String id() {
+        return id;
+    }
+
+    /**
+     * The page went away: the next render starts from an empty container.
+     */
+    void reset() {
+        tree = null;
+        nodesById.clear();
+    }
+
+    void render() {
+        renderScheduled.set(false);
+        if (unmounted || !bridge.isPageReady()) return; // rendered in full once the page is ready
+
+        VNode next;
+        try {
+            next = component.render();
+        } catch (Exception e) {
+            LOG.log(Level.ERROR, () -> "Error rendering " + selector, e);
+            return;
+        }
+        if (next == null) next = VNode.text("");
+
+        StringJoiner ops = new StringJoiner(",", "[", "]");
+        if (tree == null) {
+            ops.add("[\"x\"]");
+            insert(0, null, next, ops);
+        } else {
+            diff(tree, next, 0, ops);
+        }
+        tree = next;
+        if (ops.length() > 2) {
+            bridge.sendDomPatches(id, selector, ops.toString());
+        }
+    }
+
+    /**
+     * Runs the handler a page event was sent for, then re-renders.
+     */
+    void handleEvent(int nodeId, DomEvent event) {
+        VNode node = nodesById.get(nodeId);
+        Consumer<DomEvent> handler = node != null ? node.listeners.get(event.getType()) : null;
+        if (handler == null) return; // the node or listener went away meanwhile
+        try {
+            handler.accept(event);
+        } catch (Exception e) {
+            LOG.log(Level.ERROR, () -> "Error handling " + event.getType() + " event in " + selector, e);
+        }
+        invalidate();
+    }
+
+    // Diff
+
+    private void diff(VNode old, VNode next, int parentId, StringJoiner ops) {
+        if (old == next) return; // same instance: unchanged subtree
+        if (!sameKind(old, next)) {
+            insert(parentId, old.id, next, ops);
+            remove(old, ops);
+            return;
+        }
+
+        next.id = old.id;
+        nodesById.put(next.id, next);
+        if (next.isText()) {
+            if (!old.text.equals(next.text)) {
+                ops.add("[\"t\"," + next.id + "," + WebviewBridge.toJson(next.text) + "]");
+            }
+            return;
+        }
+
+        for (String name : old.attributes.keySet()) {
+            if (!next.attributes.containsKey(name)) {
+                ops.add("[\"a\"," + next.id + "," + WebviewBridge.toJson(name) + ",null]");
+            }
+        }
+        for (Map.Entry<String, String> attribute : next.attributes.entrySet()) {
+            if (!attribute.getValue().equals(old.attributes.get(attribute.getKey()))) {
+                ops.add("[\"a\"," + next.id + "," + WebviewBridge.toJson(attribute.getKey()) + "," +
+                    WebviewBridge.toJson(attribute.getValue()) + "]");
+            }
+        }
+        for (String type : old.listeners.keySet()) {
+            if (!next.listeners.containsKey(type)) {
+                ops.add("[\"e\"," + next.id + "," + WebviewBridge.toJson(type) + ",false]");
+            }
+        }
+        for (String type : next.listeners.keySet()) {
+            if (!old.listeners.containsKey(type)) {
+                ops.add("[\"e\"," + next.id + "," + WebviewBridge.toJson(type) + ",true]");
+            }
+        }
+
+        diffChildren(old.children, next.children, next.id, ops);
+    }
+
+    /**
+     * Matches children by key (unkeyed ones by position among the unkeyed),
+     * removes and inserts the unmatched ones and moves only the matched ones
+     * outside the longest run that kept its order.
+     */
+    private void diffChildren(List<VNode> oldChildren, List<VNode> newChildren, int parentId, StringJoiner ops) {
+        if (oldChildren.isEmpty() && newChildren.isEmpty()) return;
+
+        Map<String, Integer> oldIndexByKey = new HashMap<>();
+        int unkeyed = 0;
+        for (int i = 0; i < oldChildren.size(); i++) {
+            oldIndexByKey.put(childKey(oldChildren.get(i), unkeyed), i);
+            if (oldChildren.get(i).key == null) unkeyed++;
+        }
+
+        int[] sources = new int[newChildren.size()];
+        boolean[] reused = new boolean[oldChildren.size()];
+        unkeyed = 0;
+        for (int i = 0; i < newChildren.size(); i++) {
+            VNode child = newChildren.get(i);
+            Integer source = oldIndexByKey.remove(childKey(child, unkeyed));
+            if (child.key == null) unkeyed++;
+            if (source != null && sameKind(oldChildren.get(source), child)) {
+                sources[i] = source;
+                reused[source] = true;
+            } else {
+                sources[i] = -1;
+            }
+        }
+
+        for (int i = 0; i < oldChildren.size(); i++) {
+            if (!reused[i]) remove(oldChildren.get(i), ops);
+        }
+        for (int i = 0; i < newChildren.size(); i++) {
+            if (sources[i] >= 0) diff(oldChildren.get(sources[i]), newChildren.get(i), parentId, ops);
+        }
+
+        boolean[] stays = longestIncreasingRun(sources);
+        for (int i = newChildren.size() - 1; i >= 0; i--) {
+            VNode child = newChildren.get(i);
+            Integer before = i + 1 < newChildren.size() ? newChildren.get(i + 1).id : null;
+            if (sources[i] < 0) {
+                insert(parentId, before, child, ops);
+            } else if (!stays[i]) {
+                ops.add("[\"m\"," + parentId + "," + child.id + "," + before + "]");
+            }
+        }
+    }
+
+    private static String childKey(VNode node, int unkeyedIndex) {
+        return node.key != null ? "k" + node.key : "#" + unkeyedIndex;
+    }
+
+    private static boolean sameKind(VNode a, VNode b) {
+        if (a.isText() || b.isText()) return a.isText() && b.isText();
+        return a.tag.equals(b.tag) && Objects.equals(a.key, b.key);
+    }
+
+    /**
+     * Marks the entries (ignoring -1) forming a longest increasing subsequence.
+     */
+    private static boolean[] longestIncreasingRun(int[] values) {
+        int n = values.length;
+        int[] predecessor = new int[n];
+        int[] tails = new int[n]; // index of the smallest tail of each run length
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            if (values[i] < 0) continue;
+            int low = 0, high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) low = mid + 1; else high = mid;
+            }
+            predecessor[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) length++;
+        }
+        boolean[] result = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessor[i]) {
+            result[i] = true;
+        }
+        return result;
+    }
+
+    private void insert(int parentId, Integer beforeId, VNode node, StringJoiner ops) {
+        StringBuilder spec = new StringBuilder();
+        create(node, spec);
+        ops.add("[\"i\"," + parentId + "," + beforeId + "," + spec + "]");
+    }
+
+    private void create(VNode node, StringBuilder spec) {
+        node.id = nextNodeId++;
+        nodesById.put(node.id, node);
+        if (node.isText()) {
+            spec.append('[').append(node.id).append(",\"#text\",").append(WebviewBridge.toJson(node.text)).append(']');
+            return;
+        }
+
+        spec.append('[').append(node.id).append(',').append(WebviewBridge.toJson(node.tag)).append(",{");
+        boolean first = true;
+        for (Map.Entry<String, String> attribute : node.attributes.entrySet()) {
+            if (!first) spec.append(',');
+            spec.append(WebviewBridge.toJson(attribute.getKey())).append(':').append(WebviewBridge.toJson(attribute.getValue()));
+            first = false;
+        }
+        spec.append("},[");
+        first = true;
+        for (String type : node.listeners.keySet()) {
+            if (!first) spec.append(',');
+            spec.append(WebviewBridge.toJson(type));
+            first = false;
+        }
+        spec.append("],[");
+        first = true;
+        for (VNode child : node.children) {
+            if (!first) spec.append(',');
+            create(child, spec);
+            first = false;
+        }
+        spec.append("]]");
+    }
+
+    private void remove(VNode node, StringJoiner ops) {
+        ops.add("[\"r\"," + node.id + "]");
+        forget(node);
+    }
+
+    private void forget(VNode node) {
+        nodesById.remove(node.id);
+        for (VNode child : node.children) forget(child);
+    }
+}
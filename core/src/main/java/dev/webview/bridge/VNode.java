@@ -0,0 +1,116 @@
+package dev.webview.bridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A node of a virtual DOM tree rendered by a {@link Component}.
+ *
+ * <pre>
+ *   VNode.element("ul").children(items.stream()
+ *       .map(item -&gt; VNode.element("li").key(item.id).addText(item.name)
+ *           .on("click", e -&gt; select(item)))
+ *       .collect(Collectors.toList()));
+ * </pre>
+ *
+ * Build a fresh tree on every render; a node instance returned again at the
+ * same place by a later render is treated as unchanged (with its whole subtree)
+ * and skipped by the diff. A node may appear only once in a tree.
+ */
+public final class VNode {
+    final String tag; // null for text nodes
+    final String text;
+    String key;
+    Map<String, String> attributes = Collections.emptyMap();
+    Map<String, Consumer<DomEvent>> listeners = Collections.emptyMap();
+    List<VNode> children = Collections.emptyList();
+
+    // Id of the DOM node in the page, assigned by the RenderRoot on first render
+    int id;
+
+    private VNode(String tag, String text) {
+        this.tag = tag;
+        this.text = text;
+    }
+
+    /**
+     * An element, e.g. {@code element("div")}.
+     */
+    public static VNode element(String tag) {
+        return new VNode(tag, null);
+    }
+
+    /**
+     * A text node.
+     */
+    public static VNode text(String text) {
+        return new VNode(null, text != null ? text : "");
+    }
+
+    /**
+     * Identifies this node among its siblings, so reordered lists move DOM
+     * nodes instead of rebuilding them. Unkeyed siblings are matched by position.
+     */
+    public VNode key(Object key) {
+        this.key = key != null ? key.toString() : null;
+        return this;
+    }
+
+    /**
+     * Sets an attribute; a null value leaves it out. {@code value}, {@code checked}
+     * and {@code selected} are set as DOM properties.
+     */
+    public VNode attr(String name, Object value) {
+        if (tag == null) throw new IllegalStateException("Text nodes have no attributes");
+        if (attributes.isEmpty()) attributes = new LinkedHashMap<>();
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value.toString());
+        }
+        return this;
+    }
+
+    /**
+     * Handles a DOM event ("click", "input", "change", "submit", "keydown", ...).
+     * The root re-renders after each handled event; submit events don't navigate.
+     */
+    public VNode on(String type, Consumer<DomEvent> handler) {
+        if (tag == null) throw new IllegalStateException("Text nodes have no listeners");
+        if (listeners.isEmpty()) listeners = new LinkedHashMap<>();
+        listeners.put(type, handler);
+        return this;
+    }
+
+    public VNode child(VNode child) {
+        if (tag == null) throw new IllegalStateException("Text nodes have no children");
+        if (children.isEmpty()) children = new ArrayList<>();
+        children.add(child);
+        return this;
+    }
+
+    public VNode children(VNode... children) {
+        for (VNode child : children) child(child);
+        return this;
+    }
+
+    public VNode children(List<VNode> children) {
+        for (VNode child : children) child(child);
+        return this;
+    }
+
+    /**
+     * Appends a text node.
+     */
+    public VNode addText(Object text) {
+        return child(text(text != null ? text.toString() : ""));
+    }
+
+    boolean isText() {
+        return tag == null;
+    }
+}
@@ -1,15 +1,33 @@
 package dev.webview.bridge;
 
+import dev.webview.NativeScript;
 import dev.webview.Webview;
+import dev.webview.traffic.TrafficListener;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.lang.System.Logger.Level;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * JavaScript bridge for Webview. Exposes Java objects to JavaScript.
@@ -22,32 +40,106 @@ import java.util.Map;
  * </pre>
  */
 public class WebviewBridge {
-    private static String bridgeScript = "";
-    static {
-        try {
-            bridgeScript = loadBridgeScript();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private static String loadBridgeScript() throws IOException {
-        return new String(WebviewBridge.class
-            .getResourceAsStream("/dev/webview/bridge/BridgeScript.js")
-            .readAllBytes(), StandardCharsets.UTF_8);
-    }
+    private static final System.Logger LOG = System.getLogger(WebviewBridge.class.getName());
+    // Logger whose level decides which console output BridgeScript.js keeps
+    static final System.Logger SCRIPT_LOG = System.getLogger("dev.webview.bridge.js");
 
     private final Webview webview;
     private final Map<String, JavascriptObject> objects = new HashMap<>();
+    // Exposed objects by JS id: their own id, or "parentId/name" for lazily exposed sub-objects
+    private final Map<String, JavascriptObject> objectsById = new ConcurrentHashMap<>();
+    // Object types whose schema earlier init scripts already define
+    private final Set<Class<?>> definedTypes = ConcurrentHashMap.newKeySet();
+    // Event types the current page has at least one Bridge.on() listener for
+    private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+    // Observable collection currently exposed per "objectId.property"
+    private final Map<String, CollectionChangeLog.Target> collectionTargets = new ConcurrentHashMap<>();
+    private final Set<CollectionChangeLog.Target> dirtyTargets = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean patchFlushScheduled = new AtomicBoolean(false);
+    // Java -> JS calls waiting for their result, by correlation id
+    private final Map<Long, CompletableFuture<Object>> pendingCalls = new ConcurrentHashMap<>();
+    private final Queue<String> queuedCalls = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean callFlushScheduled = new AtomicBoolean(false);
+    private final AtomicLong nextCallId = new AtomicLong();
+    private volatile long callTimeoutMillis = 30_000;
+    private volatile boolean columnarResults = false;
+    // Pending invocations of JS callbacks passed as INVOKE arguments
+    private final Queue<String> queuedCallbacks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean callbackFlushScheduled = new AtomicBoolean(false);
+
+    // Page generation reported by the bridge runtime: loading (LOADING seen) and ready (READY seen).
+    // While no page is ready, emits are buffered and sent as one batch on READY.
+    private volatile String loadingGeneration;
+    private volatile String pageGeneration;
+    private final Map<Object, BufferedEmit> bufferedEmits = new LinkedHashMap<>();
+    private boolean bufferOverflowReported = false;
+    static final int MAX_BUFFERED_EMITS = 256;
+
+    // Events broadcast through a BridgeGroup, waiting for this window's UI thread
+    private final Queue<BridgeGroup.Event> queuedBroadcasts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger broadcastBacklog = new AtomicInteger();
+    private final AtomicLong droppedBroadcasts = new AtomicLong();
+    private final AtomicBoolean broadcastFlushScheduled = new AtomicBoolean(false);
+
+    // BACKGROUND priority calls, run in time slices between other UI thread work
+    private final Queue<Runnable> backgroundCalls = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backgroundBacklog = new AtomicInteger();
+    private final AtomicBoolean backgroundDrainScheduled = new AtomicBoolean(false);
+    static final long BACKGROUND_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+    // Admission control for INVOKE: calls in flight of the current page, limits, and calls turned away.
+    // The page's runtime gets the same limits and queues calls over them, see setCallLimits().
+    static final int DEFAULT_MAX_CALLS_PER_OBJECT = 64;
+    static final int DEFAULT_MAX_CALLS = 256;
+    static final int DEFAULT_MAX_QUEUED_CALLS = 1024;
+    private volatile int maxCallsPerObject = DEFAULT_MAX_CALLS_PER_OBJECT;
+    private volatile int maxCalls = DEFAULT_MAX_CALLS;
+    private volatile int maxQueuedCalls = DEFAULT_MAX_QUEUED_CALLS;
+    private volatile CallAdmission admission = new CallAdmission();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+    private boolean overloadReported = false;
+
+    // Page load timelines: Java-side marks of the latest load (UI thread) and the last reported timeline
+    private final double createdMillis = Webview.epochMillis();
+    private final AtomicLong initScriptBytes = new AtomicLong();
+    private String timelineGeneration;
+    private double loadingMillis = Double.NaN;
+    private double readyMillis = Double.NaN;
+    private double readySentMillis = Double.NaN;
+    private double reportedNavigationMillis = Double.NaN;
+    private boolean firstLoadReported = false;
+    private volatile PageLoadTimeline lastLoadTimeline;
+    private volatile Consumer<PageLoadTimeline> loadTimelineListener;
+    private static volatile boolean jfrAvailable = true;
+
+    // Components rendered into the page, by root id
+    private final Map<String, RenderRoot> renderRoots = new ConcurrentHashMap<>();
+    private final AtomicLong nextRenderRootId = new AtomicLong();
+    // Shared state stores mirrored into the page, by name
+    private final Map<String, BridgeStore> stores = new ConcurrentHashMap<>();
+
+    // Marks messages whose result is returned later through webview.returnResult()
+    private static final String DEFERRED = new String("deferred");
 
     public WebviewBridge(Webview webview) {
+        this(webview, null);
+    }
+
+    /**
+     * @param scriptLogLevel Most verbose BridgeScript.js console output kept, or null for
+     *                       the level enabled for the "dev.webview.bridge.js" logger.
+     *                       Log statements below it are removed from the injected script.
+     */
+    public WebviewBridge(Webview webview, Level scriptLogLevel) {
         this.webview = webview;
         
         // Set up the binding handler
-        webview.bind("__bridgeInternal", this::handleBridgeMessage);
+        webview.bindAsync("__bridgeInternal", this::onBridgeMessage);
         
-        // Inject bridge script
-        rebuildInitScript();
+        // Inject bridge runtime, encoded once per log level and shared by all bridges
+        NativeScript runtime = BridgeScript.runtime(scriptLogLevel != null ? scriptLogLevel : BridgeScript.loggerLevel(SCRIPT_LOG));
+        initScriptBytes.addAndGet(runtime.size());
+        webview.init(runtime);
     }
 
     /**
@@ -58,44 +150,507 @@ public class WebviewBridge {
         
         // Get the init script for this object
         String initScript = obj.getInitScript(name, this);
+        TrafficListener listener = webview.getTrafficListener();
+        if (listener != null) listener.onObject(name, obj.getId());
         
         // Inject immediately via eval (for objects added after page load)
         webview.eval(initScript);
         
-        // Also update the init script for future page loads
-        rebuildInitScript();
+        // Also define it on future page loads (init scripts accumulate and run in order)
+        webview.init(initScript);
+        initScriptBytes.addAndGet(utf8Length(initScript));
+    }
+
+    /**
+     * UTF-8 size of a script, the unit the runtime's size is counted in.
+     */
+    private static long utf8Length(String s) {
+        long bytes = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++; // unpaired, encoded as '?'
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Renders a component into the element matching a CSS selector, replacing
+     * its content. The component renders again (and only the differences are
+     * sent) on {@link RenderRoot#invalidate()} and after each of its DOM events;
+     * on a new page load it renders in full once the page is ready.
+     */
+    public RenderRoot mount(String selector, Component component) {
+        RenderRoot root = new RenderRoot(this, "r" + nextRenderRootId.incrementAndGet(), selector, component);
+        renderRoots.put(root.id(), root);
+        root.invalidate();
+        return root;
+    }
+
+    void removeRenderRoot(String id) {
+        renderRoots.remove(id);
+    }
+
+    Webview webview() {
+        return webview;
+    }
+
+    /**
+     * Sends DOM patches of a render root. Runs on the UI thread.
+     */
+    void sendDomPatches(String rootId, String selector, String ops) {
+        String generation = pageGeneration;
+        if (generation == null) return;
+        webview.eval(
+            "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === " + toJson(generation) + ") {" +
+            "  window.Bridge.__internal.applyDomPatches(" + toJson(rootId) + "," + toJson(selector) + "," + ops + ");" +
+            "}"
+        );
+    }
+
+    /**
+     * Returns the state store with the given name, creating an empty one on
+     * first use. The page reads it as {@code Bridge.store(name)}, receives each
+     * commit as one message and gets the current snapshot on every page load.
+     */
+    public BridgeStore store(String name) {
+        return stores.computeIfAbsent(name, n -> new BridgeStore(this, n));
+    }
+
+    /**
+     * Sends store commits ([from, to, ops] each) to the page. Runs on the UI thread.
+     */
+    void sendStoreCommits(String name, String commits) {
+        String generation = pageGeneration;
+        if (generation == null) return; // the page gets a snapshot once ready
+        webview.eval(
+            "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === " + toJson(generation) + ") {" +
+            "  window.Bridge.__internal.applyStoreCommits(" + toJson(name) + "," + commits + ");" +
+            "}"
+        );
+    }
+
+    private void sendStoreSnapshots(String generation, Collection<BridgeStore> targets) {
+        if (targets.isEmpty()) return;
+        StringJoiner snapshots = new StringJoiner(",", "{", "}");
+        for (BridgeStore store : targets) {
+            snapshots.add(toJson(store.getName()) + ":" + store.snapshotJson());
+        }
+        webview.eval(
+            "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === " + toJson(generation) + ") {" +
+            "  window.Bridge.__internal.initStores(" + snapshots + ");" +
+            "}"
+        );
     }
 
     void registerObject(String name, JavascriptObject obj) {
         objects.put(name, obj);
+        objectsById.put(obj.getId(), obj);
+    }
+
+    /**
+     * defineType() calls for the sub-object types reachable from the given type
+     * that no earlier init script of this bridge defines yet.
+     */
+    String typeDefinitions(ObjectType type) {
+        StringBuilder sb = new StringBuilder();
+        appendTypeDefinitions(type, sb);
+        return sb.toString();
+    }
+
+    private void appendTypeDefinitions(ObjectType type, StringBuilder sb) {
+        for (Class<? extends JavascriptObject> subType : type.subObjects.values()) {
+            if (!definedTypes.add(subType)) continue;
+            ObjectType sub = ObjectType.of(subType);
+            sb.append("window.Bridge.__internal.defineType(").append(toJson(sub.key())).append(", ")
+                .append(sub.memberScript).append(");\n");
+            appendTypeDefinitions(sub, sb);
+        }
+    }
+
+    /**
+     * Reply to EXPOSE: the object's id, its sub-object fields that are null and,
+     * if the instance's class is not the declared type of its field (a subclass or
+     * an implementation of an interface), the members of that class, which the
+     * stub built from the declared type lacks.
+     */
+    private String exposeReply(String path, JavascriptObject obj) {
+        String reply = "{\"id\":" + toJson(obj.getId());
+        String nulls = obj.nullSubObjectsJson();
+        if (nulls != null) reply += ",\"nulls\":" + nulls;
+        int slash = path.lastIndexOf('/');
+        JavascriptObject parent = slash < 0 ? null : findObject(path.substring(0, slash));
+        Class<?> declared = parent != null ? ObjectType.of(parent.getClass()).subObjects.get(path.substring(slash + 1)) : null;
+        if (declared != null && declared != obj.getClass()) {
+            ObjectType type = ObjectType.of(obj.getClass());
+            StringJoiner types = new StringJoiner(",", "{", "}");
+            appendTypeSchemas(type, new HashSet<>(), types);
+            reply += ",\"members\":[" + type.memberScript + "],\"types\":" + types;
+        }
+        return reply + "}";
+    }
+
+    private static void appendTypeSchemas(ObjectType type, Set<Class<?>> seen, StringJoiner types) {
+        for (Class<? extends JavascriptObject> subType : type.subObjects.values()) {
+            if (!seen.add(subType)) continue;
+            ObjectType sub = ObjectType.of(subType);
+            types.add(toJson(sub.key()) + ":[" + sub.memberScript + "]");
+            appendTypeSchemas(sub, seen, types);
+        }
     }
 
     /**
      * Emit an event to JavaScript.
      * Dispatches a CustomEvent that can be listened to with Bridge.on()
      * 
+     * Does nothing (not even serialize the data) if no listener for the
+     * event type is registered in the page.
+     * 
      * @param eventType The event type/name
      * @param data The event data (will be JSON serialized)
      */
     public void emit(String eventType, Object data) {
+        submitEvent(eventType, null, data, null);
+    }
+
+    /**
+     * Emit an event to JavaScript with a lazily computed payload.
+     * The supplier is only called if the page listens for the event type.
+     * 
+     * @param eventType The event type/name
+     * @param data Supplier of the event data (will be JSON serialized)
+     */
+    public void emit(String eventType, Supplier<?> data) {
+        submitEvent(eventType, null, null, data != null ? data : () -> null);
+    }
+
+    /**
+     * Checks whether the page has registered a listener for the given event type.
+     * 
+     * @param eventType The event type/name
+     * @return true if at least one Bridge.on() listener exists for the event type
+     */
+    public boolean hasListeners(String eventType) {
+        return subscriptions.contains(eventType);
+    }
+
+    /**
+     * Checks whether a page with the bridge runtime has finished loading.
+     * Until then (and during navigation) emitted events are buffered.
+     */
+    public boolean isPageReady() {
+        return pageGeneration != null;
+    }
+
+    /**
+     * Sends the event to the ready page, or buffers it until the next page is ready.
+     * Buffered events with the same coalesce key replace each other (latest wins).
+     */
+    private void submitEvent(String eventType, Object coalesceKey, Object data, Supplier<?> supplier) {
+        String generation;
+        synchronized (bufferedEmits) {
+            generation = pageGeneration;
+            if (generation == null) {
+                try {
+                    // Plain values are serialized now, so later mutations don't leak into the event
+                    String json = supplier == null ? toJson(data) : null;
+                    bufferEmit(coalesceKey != null ? coalesceKey : new Object(), new BufferedEmit(eventType, json, supplier));
+                } catch (Exception e) {
+                    LOG.log(Level.ERROR, () -> "Error emitting event '" + eventType + "'", e);
+                }
+                return;
+            }
+        }
+        if (!hasListeners(eventType)) return;
+        dispatchEvent(generation, eventType, supplier != null ? supplier.get() : data);
+    }
+
+    private void bufferEmit(Object key, BufferedEmit emit) {
+        // Re-insert so a coalesced event takes the position of its latest emit
+        bufferedEmits.remove(key);
+        if (bufferedEmits.size() >= MAX_BUFFERED_EMITS) {
+            Object oldest = bufferedEmits.keySet().iterator().next();
+            bufferedEmits.remove(oldest);
+            if (!bufferOverflowReported) {
+                bufferOverflowReported = true;
+                LOG.log(Level.WARNING, () -> "More than " + MAX_BUFFERED_EMITS +
+                    " events emitted before the page was ready, dropping the oldest");
+            }
+        }
+        bufferedEmits.put(key, emit);
+    }
+
+    private void dispatchEvent(String generation, String eventType, Object data) {
         try {
             String jsonData = toJson(data);
             // Escape single quotes and backslashes for JavaScript string
             String escapedType = eventType.replace("\\", "\\\\").replace("'", "\\'");
             
-            // Call Bridge.__internal.dispatch() which will fire the event
+            // Call Bridge.__internal.dispatch() which will fire the event,
+            // unless the page navigated away since (stale generation)
             String script = String.format(
-                "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.dispatch) {" +
+                "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === %s) {" +
                 "  window.Bridge.__internal.dispatch('%s', %s);" +
                 "}",
+                toJson(generation),
                 escapedType,
                 jsonData
             );
             
             webview.eval(script);
         } catch (Exception e) {
-            System.err.println("[WebviewBridge] Error emitting event '" + eventType + "': " + e.getMessage());
-            e.printStackTrace();
+            LOG.log(Level.ERROR, () -> "Error emitting event '" + eventType + "'", e);
+        }
+    }
+
+    /**
+     * Queues a group broadcast for this window, dropping the oldest queued
+     * events if more than maxBacklog are waiting.
+     */
+    void queueBroadcast(BridgeGroup.Event event, int maxBacklog) {
+        synchronized (bufferedEmits) {
+            if (pageGeneration == null) {
+                bufferEmit(new Object(), new BufferedEmit(event.eventType, event.json, null));
+                return;
+            }
+        }
+        if (!hasListeners(event.eventType)) return;
+
+        queuedBroadcasts.add(event);
+        int backlog = broadcastBacklog.incrementAndGet();
+        while (backlog > maxBacklog && queuedBroadcasts.poll() != null) {
+            droppedBroadcasts.incrementAndGet();
+            backlog = broadcastBacklog.decrementAndGet();
+        }
+        if (broadcastFlushScheduled.compareAndSet(false, true)) {
+            webview.dispatch(this::flushBroadcasts);
+        }
+    }
+
+    int broadcastBacklog() {
+        return broadcastBacklog.get();
+    }
+
+    long droppedBroadcasts() {
+        return droppedBroadcasts.get();
+    }
+
+    /**
+     * Sends all queued broadcasts to JavaScript in a single eval.
+     * Runs on this window's UI thread.
+     */
+    private void flushBroadcasts() {
+        broadcastFlushScheduled.set(false);
+        BridgeGroup.Event event;
+        String generation;
+        synchronized (bufferedEmits) {
+            generation = pageGeneration;
+            if (generation == null) {
+                // The page went away since they were queued: keep them for the next one, like queueBroadcast()
+                while ((event = queuedBroadcasts.poll()) != null) {
+                    broadcastBacklog.decrementAndGet();
+                    bufferEmit(new Object(), new BufferedEmit(event.eventType, event.json, null));
+                }
+                return;
+            }
+        }
+
+        event = queuedBroadcasts.poll();
+        if (event == null) return;
+        broadcastBacklog.decrementAndGet();
+        BridgeGroup.Event next = queuedBroadcasts.poll();
+        if (next == null) {
+            // A single event: the script encoded once for all windows
+            webview.eval(event.script());
+            return;
+        }
+
+        StringJoiner batch = new StringJoiner(",", "[", "]");
+        // The shared fragments are reused as is, only the batch around them is per window
+        batch.add(event.batchEntry);
+        do {
+            broadcastBacklog.decrementAndGet();
+            batch.add(next.batchEntry);
+        } while ((next = queuedBroadcasts.poll()) != null);
+
+        webview.eval(
+            "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === " + toJson(generation) + ") {" +
+            "  window.Bridge.__internal.dispatchBatch(" + batch + ");" +
+            "}"
+        );
+    }
+
+    /**
+     * A page with the given generation started loading, or was restored from the
+     * back/forward cache: forget the previous page's subscriptions and buffer
+     * emits until it reports READY.
+     */
+    private void onPageLoading(String generation, JSONArray events) {
+        synchronized (bufferedEmits) {
+            loadingGeneration = generation;
+            pageGeneration = null;
+            bufferOverflowReported = false;
+            replaceSubscriptions(events);
+        }
+        // Calls the previous page left in flight don't count against this one
+        admission = new CallAdmission();
+        overloadReported = false;
+
+        timelineGeneration = generation;
+        loadingMillis = Webview.epochMillis();
+        readyMillis = Double.NaN;
+        readySentMillis = Double.NaN;
+        // The new page starts without the rendered DOM
+        for (RenderRoot root : renderRoots.values()) {
+            root.reset();
+        }
+    }
+
+    /**
+     * The page finished loading and registered its listeners: send everything
+     * buffered meanwhile as a single batch, then emit directly.
+     */
+    private void onPageReady(String generation, JSONArray events) {
+        List<BufferedEmit> buffered;
+        synchronized (bufferedEmits) {
+            if (!generation.equals(loadingGeneration)) return; // a later page is already loading
+            if (generation.equals(timelineGeneration) && Double.isNaN(readyMillis)) readyMillis = Webview.epochMillis();
+            replaceSubscriptions(events);
+            pageGeneration = generation;
+            buffered = new ArrayList<>(bufferedEmits.values());
+            bufferedEmits.clear();
+        }
+
+        StringJoiner batch = new StringJoiner(",", "[", "]");
+        int count = 0;
+        for (BufferedEmit emit : buffered) {
+            if (!hasListeners(emit.eventType)) continue;
+            try {
+                String json = emit.supplier != null ? toJson(emit.supplier.get()) : emit.json;
+                batch.add("[" + toJson(emit.eventType) + "," + json + "]");
+                count++;
+            } catch (Exception e) {
+                LOG.log(Level.ERROR, () -> "Error emitting event '" + emit.eventType + "'", e);
+            }
+        }
+        if (count > 0) {
+            webview.eval(
+                "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === " + toJson(generation) + ") {" +
+                "  window.Bridge.__internal.dispatchBatch(" + batch + ");" +
+                "}"
+            );
+        }
+
+        // Calls issued before the page was ready were held back, see flushCalls()
+        if (!queuedCalls.isEmpty()) flushCalls();
+
+        // Stores the page mirrors start from their current snapshot
+        sendStoreSnapshots(generation, stores.values());
+
+        for (RenderRoot root : renderRoots.values()) {
+            root.reset();
+            root.render();
+        }
+        if (generation.equals(timelineGeneration) && Double.isNaN(readySentMillis)) readySentMillis = Webview.epochMillis();
+    }
+
+    /**
+     * Combines the page's load marks with the Java-side ones into the
+     * timeline of that load and publishes it.
+     */
+    private void onPageTimeline(String generation, JSONObject data) {
+        double origin = data.getDouble("origin");
+        List<PageLoadTimeline.Stage> stages = new ArrayList<>();
+        stages.add(new PageLoadTimeline.Stage("navigationStart", "page", origin));
+        JSONObject marks = data.getJSONObject("marks");
+        for (String name : marks.keySet()) {
+            stages.add(new PageLoadTimeline.Stage(name, "page", origin + marks.getDouble(name)));
+        }
+
+        if (!firstLoadReported) {
+            // The window and bridge were created for this page
+            firstLoadReported = true;
+            stages.add(new PageLoadTimeline.Stage("webview.create", "java", webview.getCreateStartedMillis()));
+            stages.add(new PageLoadTimeline.Stage("webview.created", "java", webview.getCreatedMillis()));
+            stages.add(new PageLoadTimeline.Stage("bridge.created", "java", createdMillis));
+        }
+        double navigation = webview.getNavigationMillis();
+        if (!Double.isNaN(navigation) && navigation != reportedNavigationMillis && navigation <= origin + 1) {
+            // Only a navigate()/setHtml() this load started from, not one of an earlier page
+            reportedNavigationMillis = navigation;
+            stages.add(new PageLoadTimeline.Stage("navigate", "java", navigation));
+        }
+        if (generation.equals(timelineGeneration)) {
+            addStage(stages, "bridge.loading", loadingMillis);
+            addStage(stages, "bridge.ready", readyMillis);
+            addStage(stages, "bridge.ready.sent", readySentMillis);
+        }
+
+        PageLoadTimeline timeline = new PageLoadTimeline(generation, stages, initScriptBytes.get(), data.optInt("propertyFetches", 0));
+        lastLoadTimeline = timeline;
+        LOG.log(Level.DEBUG, timeline::toString);
+
+        Consumer<PageLoadTimeline> listener = loadTimelineListener;
+        if (listener != null) {
+            try {
+                listener.accept(timeline);
+            } catch (Exception e) {
+                LOG.log(Level.ERROR, "Error in page load timeline listener", e);
+            }
+        }
+        if (jfrAvailable) {
+            try {
+                PageLoadEvent.commit(timeline);
+            } catch (LinkageError e) {
+                // Runtime image without jdk.jfr
+                jfrAvailable = false;
+            }
+        }
+    }
+
+    private static void addStage(List<PageLoadTimeline.Stage> stages, String name, double epochMillis) {
+        if (!Double.isNaN(epochMillis)) stages.add(new PageLoadTimeline.Stage(name, "java", epochMillis));
+    }
+
+    /**
+     * Receives the {@link PageLoadTimeline} of every page load, on the UI thread,
+     * shortly after the page's load event (or its first property sync, if later).
+     * Timelines are also logged at DEBUG and recorded as "dev.webview.PageLoad" JFR events.
+     */
+    public void setLoadTimelineListener(Consumer<PageLoadTimeline> listener) {
+        this.loadTimelineListener = listener;
+    }
+
+    /**
+     * @return The timeline of the last page load that reported one, or null
+     */
+    public PageLoadTimeline getLastLoadTimeline() {
+        return lastLoadTimeline;
+    }
+
+    private void onPageUnload(String generation) {
+        synchronized (bufferedEmits) {
+            if (generation.equals(pageGeneration)) {
+                // Leaving the page (or entering the back/forward cache): buffer from now on
+                pageGeneration = null;
+            }
+        }
+    }
+
+    private void replaceSubscriptions(JSONArray events) {
+        subscriptions.clear();
+        for (int i = 0; i < events.length(); i++) {
+            subscriptions.add(events.getString(i));
         }
     }
 
@@ -108,29 +663,293 @@ public class WebviewBridge {
      * @param newValue The new value of the property
      */
     public void emitPropertyUpdate(JavascriptObject obj, String propertyName, Object newValue) {
+        if (newValue instanceof ObservableCollection) {
+            // Ship the snapshot with its version so later patches apply on top of it.
+            // A page that is not ready yet fetches the collection itself.
+            String generation = pageGeneration;
+            if (generation == null || !hasListeners("propertyUpdated")) return;
+            webview.eval(String.format(
+                "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === %s) {" +
+                "  window.Bridge.__internal.dispatch('propertyUpdated', {objectId: %s, property: %s, value: %s});" +
+                "}",
+                toJson(generation),
+                toJson(obj.getId()),
+                toJson(propertyName),
+                observeCollection((ObservableCollection) newValue, obj.getId(), propertyName)
+            ));
+            return;
+        }
         Map<String, Object> data = new HashMap<>();
         data.put("objectId", obj.getId());
         data.put("property", propertyName);
         data.put("value", newValue);
-        emit("propertyUpdated", data);
+        // Only the latest value of a property matters while buffered
+        submitEvent("propertyUpdated", "propertyUpdated:" + obj.getId() + "." + propertyName, data, null);
     }
 
-    private void rebuildInitScript() {
-        List<String> init = new ArrayList<>();
-        init.add(bridgeScript);
-        
-        // Add all root-level objects
-        for (Map.Entry<String, JavascriptObject> entry : new ArrayList<>(objects.entrySet())) {
-            if (!entry.getKey().contains(".")) {
-                String script = entry.getValue().getInitScript(entry.getKey(), this);
-                init.add(script);
+    /**
+     * Starts tracking an observable collection exposed at objectId.property and
+     * returns its current content wrapped with the version it corresponds to.
+     */
+    private String observeCollection(ObservableCollection collection, String objectId, String property) {
+        CollectionChangeLog log = collection.changes();
+        synchronized (log) {
+            CollectionChangeLog.Target target = log.attach(this, objectId, property);
+            CollectionChangeLog.Target previous = collectionTargets.put(objectId + "." + property, target);
+            if (previous != null && previous != target) {
+                // The field now holds another collection, stop patching from the old one
+                previous.log.detach(previous);
+                dirtyTargets.remove(previous);
             }
+            return "{\"__bridgeType\":\"collection\",\"version\":" + log.version() +
+                ",\"value\":" + toJson(collection) + "}";
         }
-        
-        webview.setInitScript(String.join("\n\n", init), false);
     }
 
-    private String handleBridgeMessage(String json) {
+    void schedulePatchFlush(CollectionChangeLog.Target target) {
+        dirtyTargets.add(target);
+        if (patchFlushScheduled.compareAndSet(false, true)) {
+            webview.dispatch(this::flushPatches);
+        }
+    }
+
+    /**
+     * Sends all pending collection patches to JavaScript in a single eval.
+     */
+    private void flushPatches() {
+        patchFlushScheduled.set(false);
+        StringBuilder patches = new StringBuilder();
+        for (CollectionChangeLog.Target target : new ArrayList<>(dirtyTargets)) {
+            dirtyTargets.remove(target);
+            CollectionChangeLog.Patch patch = target.log.drain(target);
+            if (patch == null) continue;
+
+            if (patches.length() > 0) patches.append(',');
+            patches.append("{\"id\":").append(toJson(target.objectId))
+                .append(",\"property\":").append(toJson(target.property))
+                .append(",\"from\":").append(patch.from)
+                .append(",\"to\":").append(patch.to)
+                .append(",\"ops\":");
+            if (patch.ops == null) {
+                patches.append("null");
+            } else {
+                patches.append('[').append(String.join(",", patch.ops)).append(']');
+            }
+            patches.append('}');
+        }
+        // The page that is loading already reads collections, and keeps them current from their patches.
+        // A later page fetches its own snapshots, so patches never reach it.
+        String generation = loadingGeneration;
+        if (patches.length() == 0 || generation == null) return;
+
+        webview.eval(
+            "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === " + toJson(generation) + ") {" +
+            "  window.Bridge.__internal.applyPatches([" + patches + "]);" +
+            "}"
+        );
+    }
+
+    /**
+     * Calls a JavaScript function and returns its result.
+     * Calls issued together are sent to the page in a single eval.
+     * 
+     * The future completes on the UI thread; use the *Async variants of
+     * CompletableFuture for anything slow. It fails with a {@link JavascriptException}
+     * if the function throws (or its promise rejects), or with a TimeoutException
+     * after {@link #setCallTimeout(Duration)}.
+     * 
+     * @param functionPath Path of the function from window, e.g. "app.store.getState"
+     * @param args Arguments (will be JSON serialized)
+     * @return Future of the (awaited) return value as decoded JSON
+     */
+    public CompletableFuture<Object> callJs(String functionPath, Object... args) {
+        StringJoiner jsonArgs = new StringJoiner(",", "[", "]");
+        for (Object arg : args) {
+            jsonArgs.add(String.valueOf(toJson(arg)));
+        }
+        return queueCall("\"fn\":" + toJson(functionPath) + ",\"args\":" + jsonArgs);
+    }
+
+    /**
+     * Evaluates JavaScript and returns the value of the last expression.
+     * A returned promise is awaited. See {@link #callJs(String, Object...)}.
+     * 
+     * @param js JavaScript code
+     * @return Future of the result as decoded JSON
+     */
+    public CompletableFuture<Object> evalForResult(String js) {
+        return queueCall("\"eval\":" + toJson(js));
+    }
+
+    /**
+     * Sets how long {@link #callJs} and {@link #evalForResult} wait for a result.
+     */
+    public void setCallTimeout(Duration timeout) {
+        this.callTimeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Sends lists of 8 or more records or beans returned by functions and
+     * property reads column by column, see {@link ColumnarEncoder}. Off by default:
+     * the page then receives them as array-like Proxy objects, which
+     * structuredClone(), postMessage() and IndexedDB reject until copied with
+     * {@code Array.from(rows)}.
+     */
+    public void setColumnarResults(boolean enabled) {
+        this.columnarResults = enabled;
+    }
+
+    /**
+     * Limits the function calls from the page that may be in flight (invoked
+     * and not yet returned, including pending async results and queued
+     * background calls) at once. The page's bridge runtime queues calls over a
+     * limit, up to maxQueued, and rejects further ones with a
+     * {@code BridgeOverloadError}; calls reaching Java over a limit anyway are
+     * rejected the same way instead of being run.
+     *
+     * @param maxPerObject Calls in flight per exposed object (default 64)
+     * @param maxTotal Calls in flight in total (default 256)
+     * @param maxQueued Calls the page holds back before rejecting (default 1024)
+     */
+    public void setCallLimits(int maxPerObject, int maxTotal, int maxQueued) {
+        if (maxPerObject < 1 || maxTotal < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Call limits must be positive");
+        }
+        this.maxCallsPerObject = maxPerObject;
+        this.maxCalls = maxTotal;
+        this.maxQueuedCalls = maxQueued;
+
+        String generation = pageGeneration;
+        if (generation != null) {
+            webview.eval(
+                "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.generation === " + toJson(generation) + ") {" +
+                "  window.Bridge.__internal.setCallLimits(" + callLimitsJson() + ");" +
+                "}"
+            );
+        }
+    }
+
+    private String callLimitsJson() {
+        return "{\"perObject\":" + maxCallsPerObject + ",\"total\":" + maxCalls + ",\"queued\":" + maxQueuedCalls + "}";
+    }
+
+    /**
+     * @return Function calls of the current page in flight in Java
+     */
+    public int getInFlightCalls() {
+        return admission.inFlight();
+    }
+
+    /**
+     * @return Function calls of the current page in flight on the object
+     */
+    public int getInFlightCalls(JavascriptObject obj) {
+        return admission.inFlight(obj.getId());
+    }
+
+    /**
+     * @return BACKGROUND priority calls waiting for UI thread time
+     */
+    public int getQueuedBackgroundCalls() {
+        return backgroundBacklog.get();
+    }
+
+    /**
+     * @return Function calls rejected in Java because a limit was reached
+     */
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    private CompletableFuture<Object> queueCall(String callJson) {
+        long id = nextCallId.incrementAndGet();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        pendingCalls.put(id, future);
+        future.orTimeout(callTimeoutMillis, TimeUnit.MILLISECONDS)
+            .whenComplete((result, error) -> pendingCalls.remove(id));
+
+        queuedCalls.add("{\"id\":" + id + "," + callJson + "}");
+        if (callFlushScheduled.compareAndSet(false, true)) {
+            webview.dispatch(this::flushCalls);
+        }
+        return future;
+    }
+
+    private void flushCalls() {
+        callFlushScheduled.set(false);
+        if (pageGeneration == null) return; // sent once the page reports READY
+        StringJoiner calls = new StringJoiner(",", "[", "]");
+        String call;
+        int count = 0;
+        while ((call = queuedCalls.poll()) != null) {
+            calls.add(call);
+            count++;
+        }
+        if (count == 0) return;
+
+        webview.eval(
+            "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.runCalls) {" +
+            "  window.Bridge.__internal.runCalls(" + calls + ");" +
+            "}"
+        );
+    }
+
+    private void completeCalls(JSONArray results) {
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            CompletableFuture<Object> future = pendingCalls.remove(result.getLong("id"));
+            if (future == null) continue; // timed out already
+
+            if (result.has("error")) {
+                future.completeExceptionally(new JavascriptException(result.getString("error")));
+            } else {
+                Object value = result.opt("value");
+                future.complete(value == JSONObject.NULL ? null : value);
+            }
+        }
+    }
+
+    void queueCallback(long handle, Object[] args) {
+        StringJoiner jsonArgs = new StringJoiner(",", "[", "]");
+        for (Object arg : args) {
+            jsonArgs.add(String.valueOf(toJson(arg)));
+        }
+        queuedCallbacks.add("[" + handle + "," + jsonArgs + "]");
+        if (callbackFlushScheduled.compareAndSet(false, true)) {
+            webview.dispatch(this::flushCallbacks);
+        }
+    }
+
+    /**
+     * Sends all pending callback invocations to JavaScript in a single eval.
+     * Must run on the UI thread.
+     */
+    private void flushCallbacks() {
+        callbackFlushScheduled.set(false);
+        StringJoiner invocations = new StringJoiner(",", "[", "]");
+        String invocation;
+        int count = 0;
+        while ((invocation = queuedCallbacks.poll()) != null) {
+            invocations.add(invocation);
+            count++;
+        }
+        if (count == 0) return;
+
+        webview.eval(
+            "if (window.Bridge && window.Bridge.__internal && window.Bridge.__internal.runCallbacks) {" +
+            "  window.Bridge.__internal.runCallbacks(" + invocations + ");" +
+            "}"
+        );
+    }
+
+    private void onBridgeMessage(String seq, String json) {
+        String result = handleBridgeMessage(seq, json);
+        if (result != DEFERRED) {
+            webview.returnResult(seq, true, result);
+        }
+    }
+
+    private String handleBridgeMessage(String seq, String json) {
         try {
             // Parse the JSON array: [type, data]
             JSONArray args = new JSONArray(json);
@@ -143,31 +962,37 @@ public class WebviewBridge {
                     String property = data.getString("property");
                     JavascriptObject obj = findObject(id);
                     if (obj == null) {
-                        System.err.println("[WebviewBridge] Object not found: " + id);
+                        LOG.log(Level.WARNING, () -> "Object not found: " + id);
+                        return null;
+                    }
+                    if (!obj.hasProperty(property)) {
+                        // A probe for a key outside the schema (then, toJSON, ...), not worth a stack trace
+                        LOG.log(Level.DEBUG, () -> "No property " + property + " on " + id);
                         return null;
                     }
                     try {
                         Object result = obj.get(property);
-                        String jsonResult = toJson(result);
-                        System.out.println("[WebviewBridge] GET " + id + "." + property + " = " + result + " -> JSON: " + jsonResult);
+                        String jsonResult = result instanceof ObservableCollection
+                            ? observeCollection((ObservableCollection) result, id, property)
+                            : resultJson(result);
+                        LOG.log(Level.TRACE, () -> "GET " + id + "." + property + " -> " + jsonResult);
                         return jsonResult;
                     } catch (Throwable e) {
-                        e.printStackTrace();
+                        LOG.log(Level.ERROR, () -> "Error getting " + id + "." + property, e);
                         return null;
                     }
                 }
                 
                 case "SET": {
-                    String id = data.getString("id");
-                    String property = data.getString("property");
-                    Object value = data.get("newValue");
-                    JavascriptObject obj = findObject(id);
-                    if (obj != null) {
-                        try {
-                            obj.set(property, value);
-                        } catch (Throwable e) {
-                            e.printStackTrace();
-                        }
+                    applySet(data);
+                    return null;
+                }
+                
+                case "SET_BATCH": {
+                    // Coalesced writes, applied in the order JS queued them
+                    JSONArray writes = data.getJSONArray("writes");
+                    for (int i = 0; i < writes.length(); i++) {
+                        applySet(writes.getJSONObject(i));
                     }
                     return null;
                 }
@@ -178,44 +1003,261 @@ public class WebviewBridge {
                     JSONArray arguments = data.getJSONArray("arguments");
                     JavascriptObject obj = findObject(id);
                     if (obj == null) {
-                        System.err.println("[WebviewBridge] Object not found: " + id);
+                        LOG.log(Level.WARNING, () -> "Object not found: " + id);
                         return null;
                     }
-                    try {
-                        Object result = obj.invoke(function, jsonArrayToObjectArray(arguments));
-                        return toJson(result);
-                    } catch (Throwable e) {
-                        e.printStackTrace();
-                        return null;
+                    // Resolved before admission, nothing may throw between acquiring the slot and runInvoke()
+                    CallPriority priority = data.has("priority") ? CallPriority.fromJs(data.getString("priority")) : null;
+                    if (priority == null) priority = obj.priorityOf(function);
+                    CallAdmission calls = admission;
+                    if (!calls.tryAcquire(id, maxCallsPerObject, maxCalls)) {
+                        rejectCall(seq, id, function, calls);
+                        return DEFERRED;
+                    }
+                    if (priority == CallPriority.BACKGROUND) {
+                        queueBackgroundCall(() -> {
+                            // runInvoke() returns the result and releases the slot itself
+                            try {
+                                runInvoke(seq, calls, obj, id, function, arguments);
+                            } catch (Exception e) {
+                                LOG.log(Level.ERROR, () -> "Error invoking " + id + "." + function, e);
+                            }
+                        });
+                    } else {
+                        runInvoke(seq, calls, obj, id, function, arguments);
+                    }
+                    return DEFERRED;
+                }
+                
+                case "EXPOSE": {
+                    // The page accessed a sub-object for the first time. Its path id is
+                    // resolved again on every message, so a reassigned field is followed.
+                    String id = data.getString("id");
+                    JavascriptObject obj = findObject(id);
+                    if (obj == null) return "{\"id\":null}"; // the field is null
+                    obj.attach(this);
+                    objectsById.put(obj.getId(), obj);
+                    TrafficListener listener = webview.getTrafficListener();
+                    if (listener != null) listener.onObject(id, obj.getId());
+                    return exposeReply(id, obj);
+                }
+                
+                case "STORE_COMMIT": {
+                    // Changes requested by the page, applied and sent back like any other commit
+                    BridgeStore store = store(data.getString("store"));
+                    return toJson(store.commitFromJs(data.getJSONArray("ops")).getVersion());
+                }
+                
+                case "STORE_SYNC": {
+                    // The page missed commits of a store: resend its snapshot
+                    BridgeStore store = stores.get(data.getString("store"));
+                    String generation = pageGeneration;
+                    if (store != null && generation != null) {
+                        sendStoreSnapshots(generation, List.of(store));
                     }
+                    return null;
+                }
+                
+                case "DOM_EVENT": {
+                    RenderRoot root = renderRoots.get(data.getString("root"));
+                    if (root == null) return null;
+                    root.handleEvent(data.getInt("node"), new DomEvent(
+                        data.getString("event"),
+                        data.isNull("value") ? null : data.getString("value"),
+                        data.isNull("checked") ? null : data.getBoolean("checked"),
+                        data.isNull("key") ? null : data.getString("key")));
+                    return null;
+                }
+                
+                case "SUBSCRIBE": {
+                    subscriptions.add(data.getString("event"));
+                    return null;
+                }
+                
+                case "UNSUBSCRIBE": {
+                    subscriptions.remove(data.getString("event"));
+                    return null;
+                }
+                
+                case "RESULTS": {
+                    completeCalls(data.getJSONArray("results"));
+                    return null;
+                }
+                
+                case "LOADING": {
+                    // Sent by a freshly loaded bridge runtime, with the subscriptions it starts with
+                    onPageLoading(data.getString("generation"), data.getJSONArray("events"));
+                    return callLimitsJson(); // the runtime applies the call limits from here on
+                }
+                
+                case "READY": {
+                    // The page has loaded and registered its listeners
+                    onPageReady(data.getString("generation"), data.getJSONArray("events"));
+                    return null;
+                }
+                
+                case "TIMELINE": {
+                    onPageTimeline(data.getString("generation"), data);
+                    return null;
+                }
+                
+                case "UNLOAD": {
+                    onPageUnload(data.getString("generation"));
+                    return null;
                 }
                 
                 default:
-                    System.err.println("[WebviewBridge] Unknown message type: " + type);
+                    LOG.log(Level.WARNING, () -> "Unknown message type: " + type);
                     return null;
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.log(Level.ERROR, () -> "Error handling bridge message " + json, e);
             return null;
         }
     }
 
+    private void applySet(JSONObject data) {
+        String id = data.getString("id");
+        String property = data.getString("property");
+        Object value = data.get("newValue");
+        JavascriptObject obj = findObject(id);
+        if (obj != null) {
+            try {
+                obj.set(property, value);
+            } catch (Throwable e) {
+                LOG.log(Level.ERROR, () -> "Error setting " + id + "." + property, e);
+            }
+        }
+    }
+
     private JavascriptObject findObject(String id) {
-        for (JavascriptObject obj : objects.values()) {
-            if (obj.getId().equals(id)) return obj;
+        JavascriptObject obj = objectsById.get(id);
+        if (obj != null) return obj;
+
+        // Sub-object the page addresses by path before (or without) an EXPOSE
+        int slash = id.lastIndexOf('/');
+        if (slash < 0) return null;
+        JavascriptObject parent = findObject(id.substring(0, slash));
+        return parent != null ? parent.getSubObject(id.substring(slash + 1)) : null;
+    }
+
+    private void runInvoke(String seq, CallAdmission calls, JavascriptObject obj, String id, String function, JSONArray arguments) {
+        List<JsCallback> callbacks = new ArrayList<>();
+        Object result;
+        try {
+            result = obj.invoke(function, arguments, handle -> {
+                JsCallback callback = new JsCallback(this, handle);
+                callbacks.add(callback);
+                return callback;
+            });
+        } catch (Throwable e) {
+            LOG.log(Level.ERROR, () -> "Error invoking " + id + "." + function, e);
+            result = null;
+        }
+        if (result instanceof CompletionStage) {
+            // Return once the future completes; callbacks stay usable until then
+            ((CompletionStage<?>) result).whenComplete((value, error) -> webview.dispatch(() -> {
+                if (error != null) LOG.log(Level.ERROR, () -> "Error completing " + id + "." + function, error);
+                finishInvoke(seq, calls, id, function, callbacks, error == null ? value : null);
+            }));
+        } else {
+            finishInvoke(seq, calls, id, function, callbacks, result);
+        }
+    }
+
+    private void queueBackgroundCall(Runnable call) {
+        backgroundCalls.add(call);
+        backgroundBacklog.incrementAndGet();
+        if (backgroundDrainScheduled.compareAndSet(false, true)) {
+            webview.dispatch(this::runBackgroundCalls);
+        }
+    }
+
+    /**
+     * Runs queued background calls for at most one time slice, then yields the
+     * UI thread so messages that arrived meanwhile (e.g. interactive calls) go first.
+     */
+    private void runBackgroundCalls() {
+        long deadline = System.nanoTime() + BACKGROUND_SLICE_NANOS;
+        Runnable call;
+        while ((call = backgroundCalls.poll()) != null) {
+            backgroundBacklog.decrementAndGet();
+            call.run();
+            if (System.nanoTime() - deadline >= 0) break;
+        }
+        backgroundDrainScheduled.set(false);
+        if (!backgroundCalls.isEmpty() && backgroundDrainScheduled.compareAndSet(false, true)) {
+            webview.dispatch(this::runBackgroundCalls);
+        }
+    }
+
+    /**
+     * Turns away a call over the in-flight limits with an overload error,
+     * which the page's runtime rethrows as a BridgeOverloadError.
+     */
+    private void rejectCall(String seq, String id, String function, CallAdmission calls) {
+        rejectedCalls.incrementAndGet();
+        if (!overloadReported) {
+            // Once per overload, not per rejected call
+            overloadReported = true;
+            LOG.log(Level.WARNING, () -> "Too many calls in flight (" + calls.inFlight() + ", " + calls.inFlight(id) +
+                " on " + id + "), rejecting calls like " + function + " until they drain");
         }
-        return null;
+        webview.returnResult(seq, false, "{\"error\":\"overloaded\",\"message\":" +
+            toJson("Too many bridge calls in flight, " + function + " rejected") + "}");
     }
 
-    private Object[] jsonArrayToObjectArray(JSONArray arr) {
-        Object[] result = new Object[arr.length()];
-        for (int i = 0; i < arr.length(); i++) {
-            result[i] = arr.get(i);
+    /**
+     * Returns the result of an INVOKE. Callback invocations made during the call
+     * are flushed first so they reach JS before the promise resolves and the
+     * handles are released. The slot and the handles are released and the page's
+     * promise settles even if the result cannot be serialized.
+     */
+    private void finishInvoke(String seq, CallAdmission calls, String id, String function, List<JsCallback> callbacks, Object value) {
+        String result = null;
+        boolean success = false;
+        try {
+            result = resultJson(value);
+            success = true;
+        } catch (Throwable e) {
+            LOG.log(Level.ERROR, () -> "Error serializing result of " + id + "." + function, e);
+            result = "{\"error\":\"result\",\"message\":" + toJson("Cannot serialize the result of " + function + ": " + e) + "}";
+        } finally {
+            calls.release(id);
+            if (calls.inFlight() == 0) overloadReported = false;
+            try {
+                if (!callbacks.isEmpty()) {
+                    flushCallbacks();
+                    for (JsCallback callback : callbacks) {
+                        callback.release();
+                    }
+                }
+            } finally {
+                webview.returnResult(seq, success, result);
+            }
         }
-        return result;
     }
 
-    private String toJson(Object obj) {
+    /**
+     * JSON of a value returned to the page (function results, property values).
+     */
+    private String resultJson(Object obj) {
+        return columnarResults ? toResultJson(obj) : toJson(obj);
+    }
+
+    /**
+     * Like {@link #toJson}, but lists of records or beans are sent column by
+     * column, see {@link ColumnarEncoder}.
+     */
+    static String toResultJson(Object obj) {
+        if (obj instanceof Collection) {
+            String columns = ColumnarEncoder.encode((Collection<?>) obj);
+            if (columns != null) return columns;
+        }
+        return toJson(obj);
+    }
+
+    static String toJson(Object obj) {
         if (obj == null) return null;
         if (obj instanceof Number || obj instanceof Boolean) {
             return obj.toString();
@@ -238,4 +1280,16 @@ public class WebviewBridge {
         // For other objects, try to wrap in JSONObject
         return new JSONObject().put("value", obj).toString();
     }
+
+    private static final class BufferedEmit {
+        final String eventType;
+        final String json;
+        final Supplier<?> supplier;
+
+        BufferedEmit(String eventType, String json, Supplier<?> supplier) {
+            this.eventType = eventType;
+            this.json = json;
+            this.supplier = supplier;
+        }
+    }
 }
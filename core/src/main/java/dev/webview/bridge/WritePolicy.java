@@ -0,0 +1,29 @@
+package dev.webview.bridge;
+
+/**
+ * How writes to a {@link JavascriptValue} property made in JavaScript are sent to Java.
+ *
+ * With every policy except {@link #IMMEDIATE} only the latest pending value is sent;
+ * intermediate values are dropped on the JS side.
+ */
+public enum WritePolicy {
+    /**
+     * Every assignment is sent right away.
+     */
+    IMMEDIATE,
+
+    /**
+     * At most one write per {@link JavascriptValue#writeInterval()}, the latest value wins.
+     */
+    THROTTLE,
+
+    /**
+     * The write is sent once no assignment happened for {@link JavascriptValue#writeInterval()}.
+     */
+    DEBOUNCE,
+
+    /**
+     * Writes are collected until the next animation frame and sent together in one message.
+     */
+    FRAME
+}
@@ -0,0 +1,147 @@
+package dev.webview.traffic;
+
+import com.sun.jna.Pointer;
+import dev.webview.WebviewNative;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link WebviewNative} without a window or browser, for replays and tests.
+ *
+ * {@code webview_run} runs an event loop on the calling thread that executes
+ * dispatched callbacks until {@code webview_terminate}. Bound functions are
+ * called with {@link #call}; scripts, HTML and window settings are ignored
+ * apart from being counted.
+ */
+public final class HeadlessWebviewNative implements WebviewNative {
+    private static final AtomicLong HANDLES = new AtomicLong();
+    private static final Runnable STOP = () -> { };
+
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private final Map<String, BindCallback> bindings = new ConcurrentHashMap<>();
+    private final AtomicLong evalCount = new AtomicLong();
+
+    /**
+     * Runs a task on the event loop thread.
+     */
+    public void post(Runnable task) {
+        tasks.add(task);
+    }
+
+    /**
+     * Calls a bound function as the page would. Must run on the event loop
+     * thread, e.g. from a task passed to {@link #post}.
+     *
+     * @return false if nothing is bound under that name
+     */
+    public boolean call(String name, String seq, String request) {
+        BindCallback callback = bindings.get(name);
+        if (callback == null) return false;
+        callback.invoke(seq, request, null);
+        return true;
+    }
+
+    /**
+     * @return Number of scripts evaluated so far
+     */
+    public long getEvalCount() {
+        return evalCount.get();
+    }
+
+    @Override
+    public long webview_create(int debug, Object window) {
+        return HANDLES.incrementAndGet();
+    }
+
+    @Override
+    public void webview_destroy(long w) {
+        bindings.clear();
+    }
+
+    @Override
+    public void webview_run(long w) {
+        try {
+            while (true) {
+                Runnable task = tasks.take();
+                if (task == STOP) return;
+                task.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void webview_terminate(long w) {
+        tasks.add(STOP);
+    }
+
+    @Override
+    public void webview_set_title(long w, String title) {
+    }
+
+    @Override
+    public void webview_set_size(long w, int width, int height, int hints) {
+    }
+
+    @Override
+    public void webview_navigate(long w, String url) {
+    }
+
+    @Override
+    public void webview_set_html(long w, String html) {
+    }
+
+    @Override
+    public void webview_init(long w, String js) {
+    }
+
+    @Override
+    public void webview_eval(long w, String js) {
+        evalCount.incrementAndGet();
+    }
+
+    @Override
+    public void webview_set_html(long w, Pointer html) {
+    }
+
+    @Override
+    public void webview_init(long w, Pointer js) {
+    }
+
+    @Override
+    public void webview_eval(long w, Pointer js) {
+        evalCount.incrementAndGet();
+    }
+
+    @Override
+    public long webview_get_window(long w) {
+        return 0;
+    }
+
+    @Override
+    public long webview_get_native_handle(long w, int kind) {
+        return 0;
+    }
+
+    @Override
+    public int webview_bind(long w, String name, BindCallback callback, Pointer arg) {
+        bindings.put(name, callback);
+        return 0;
+    }
+
+    @Override
+    public int webview_return(long w, String seq, int status, String result) {
+        return 0;
+    }
+
+    @Override
+    public int webview_dispatch(long w, DispatchCallback fn, Pointer arg) {
+        tasks.add(() -> fn.invoke(w, arg));
+        return 0;
+    }
+}
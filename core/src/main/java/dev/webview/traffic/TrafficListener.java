@@ -0,0 +1,43 @@
+package dev.webview.traffic;
+
+/**
+ * Observes the traffic between a {@link dev.webview.Webview} and its page.
+ * Set with {@link dev.webview.Webview#setTrafficListener}.
+ *
+ * Methods are called on the thread producing the traffic (the UI thread for
+ * calls, any thread for returns and evals) and should return quickly.
+ */
+public interface TrafficListener {
+    /**
+     * A binding was called from JavaScript.
+     *
+     * @param name Name of the binding
+     * @param seq Sequence id of the call
+     * @param request JSON array of the arguments
+     */
+    void onCall(String name, String seq, String request);
+
+    /**
+     * A binding call was completed.
+     *
+     * @param seq Sequence id of the call
+     * @param success false if the JS promise is rejected
+     * @param result JSON result, null for undefined
+     */
+    void onReturn(String seq, boolean success, String result);
+
+    /**
+     * A script was evaluated in the page (emits, callbacks, patches, ...).
+     */
+    void onEval(String script);
+
+    /**
+     * An object was exposed under an id that is only valid for this session.
+     * Replays use it to map the ids of a recording onto the replayed objects.
+     *
+     * @param key Stable name of the object (its global name, or the path it was accessed by)
+     * @param id Id the page addresses it by
+     */
+    default void onObject(String key, String id) {
+    }
+}
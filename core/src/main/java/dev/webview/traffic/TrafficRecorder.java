@@ -0,0 +1,163 @@
+package dev.webview.traffic;
+
+import dev.webview.Webview;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the traffic of a webview to an append-only binary log, for replaying
+ * it later with {@link TrafficReplay}.
+ *
+ * Records are encoded straight into a memory-mapped region of the file, so
+ * capturing costs a lock and a copy per message; the OS writes the pages back.
+ *
+ * File format (big-endian):
+ * <pre>
+ *   header:  "WVTRAF01" (8 bytes), start time in epoch millis (8 bytes)
+ *   record:  kind (1 byte), nanos since start (8 bytes), fields
+ *   field:   UTF-8 length (4 bytes, -1 for null), UTF-8 bytes
+ * </pre>
+ * A zero kind or the end of the file ends the log.
+ */
+public final class TrafficRecorder implements TrafficListener, Closeable {
+    private static final System.Logger LOG = System.getLogger(TrafficRecorder.class.getName());
+
+    static final byte[] MAGIC = {'W', 'V', 'T', 'R', 'A', 'F', '0', '1'};
+    static final int HEADER_SIZE = 16;
+
+    static final byte CALL = 1;
+    static final byte RETURN = 2;
+    static final byte RETURN_ERROR = 3;
+    static final byte EVAL = 4;
+    static final byte OBJECT = 5;
+
+    // The file grows by regions of at least this size
+    private static final int REGION_SIZE = 16 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long startNanos = System.nanoTime();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private MappedByteBuffer region;
+    private long regionStart = 0;
+    private Webview webview = null;
+    private boolean closed = false;
+
+    /**
+     * Creates (or truncates) the log file.
+     */
+    public TrafficRecorder(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+        region.put(MAGIC);
+        region.putLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Starts recording the traffic of a webview into the given file.
+     * Attach before exposing objects, so their ids can be mapped on replay.
+     */
+    public static TrafficRecorder attach(Webview webview, Path file) throws IOException {
+        TrafficRecorder recorder = new TrafficRecorder(file);
+        recorder.webview = webview;
+        webview.setTrafficListener(recorder);
+        return recorder;
+    }
+
+    @Override
+    public void onCall(String name, String seq, String request) {
+        write(CALL, 3, name, seq, request);
+    }
+
+    @Override
+    public void onReturn(String seq, boolean success, String result) {
+        write(success ? RETURN : RETURN_ERROR, 2, seq, result, null);
+    }
+
+    @Override
+    public void onEval(String script) {
+        write(EVAL, 1, script, null, null);
+    }
+
+    @Override
+    public void onObject(String key, String id) {
+        write(OBJECT, 2, key, id, null);
+    }
+
+    /**
+     * Appends a record with the first {@code fields} of a, b and c.
+     */
+    private synchronized void write(byte kind, int fields, String a, String b, String c) {
+        if (closed) return;
+        long time = System.nanoTime() - startNanos;
+        try {
+            // UTF-8 needs at most 3 bytes per char, so the record fits once this is reserved
+            ensureCapacity(1 + 8 + maxSize(a) + maxSize(b) + maxSize(c));
+            region.put(kind);
+            region.putLong(time);
+            putString(a);
+            if (fields > 1) putString(b);
+            if (fields > 2) putString(c);
+        } catch (IOException e) {
+            LOG.log(Level.ERROR, "Traffic recording stopped", e);
+            closed = true;
+        }
+    }
+
+    private static int maxSize(String s) {
+        return s != null ? 4 + s.length() * 3 : 4;
+    }
+
+    private void putString(String s) {
+        if (s == null) {
+            region.putInt(-1);
+            return;
+        }
+        int lengthAt = region.position();
+        region.position(lengthAt + 4);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(s), region, true);
+        encoder.flush(region);
+        region.putInt(lengthAt, region.position() - lengthAt - 4);
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (region.remaining() >= bytes) return;
+        regionStart += region.position();
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_SIZE, bytes));
+    }
+
+    /**
+     * Stops recording and trims the file to the recorded data.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (webview != null && webview.getTrafficListener() == this) {
+            webview.setTrafficListener(null);
+        }
+        if (!channel.isOpen()) return;
+        closed = true;
+        long end = regionStart + region.position();
+        region.force();
+        region = null;
+        try {
+            channel.truncate(end);
+        } catch (IOException e) {
+            // Some platforms refuse while the region is still mapped; readers stop at the zero tail
+            LOG.log(Level.DEBUG, () -> "Could not trim traffic log to " + end + " bytes", e);
+        }
+        channel.close();
+    }
+}
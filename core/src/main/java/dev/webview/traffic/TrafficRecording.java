@@ -0,0 +1,154 @@
+package dev.webview.traffic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A traffic log written by {@link TrafficRecorder}, read back into memory.
+ */
+public final class TrafficRecording {
+    public enum Kind {
+        /** A binding call from the page: name, seq, payload = request */
+        CALL,
+        /** The result of a call: seq, payload = result, success */
+        RETURN,
+        /** A script evaluated in the page: payload = script */
+        EVAL,
+        /** An exposed object: name = key, payload = id */
+        OBJECT
+    }
+
+    private final long startMillis;
+    private final List<Entry> entries;
+
+    private TrafficRecording(long startMillis, List<Entry> entries) {
+        this.startMillis = startMillis;
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public static TrafficRecording read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Traffic log too large: " + file);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            byte[] magic = new byte[TrafficRecorder.MAGIC.length];
+            if (buffer.remaining() < TrafficRecorder.HEADER_SIZE) throw new IOException("Not a traffic log: " + file);
+            buffer.get(magic);
+            if (!Arrays.equals(magic, TrafficRecorder.MAGIC)) throw new IOException("Not a traffic log: " + file);
+            long startMillis = buffer.getLong();
+
+            List<Entry> entries = new ArrayList<>();
+            while (buffer.remaining() >= 9) {
+                byte kind = buffer.get();
+                if (kind == 0) break;
+                long time = buffer.getLong();
+                switch (kind) {
+                    case TrafficRecorder.CALL:
+                        entries.add(new Entry(Kind.CALL, time, getString(buffer), getString(buffer), getString(buffer), true));
+                        break;
+                    case TrafficRecorder.RETURN:
+                    case TrafficRecorder.RETURN_ERROR:
+                        entries.add(new Entry(Kind.RETURN, time, null, getString(buffer), getString(buffer),
+                            kind == TrafficRecorder.RETURN));
+                        break;
+                    case TrafficRecorder.EVAL:
+                        entries.add(new Entry(Kind.EVAL, time, null, null, getString(buffer), true));
+                        break;
+                    case TrafficRecorder.OBJECT:
+                        entries.add(new Entry(Kind.OBJECT, time, getString(buffer), null, getString(buffer), true));
+                        break;
+                    default:
+                        throw new IOException("Corrupt traffic log, unknown record kind " + kind + " in " + file);
+                }
+            }
+            return new TrafficRecording(startMillis, entries);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return When the recording started, in epoch millis
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return All records in the order they were written
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static final class Entry {
+        private final Kind kind;
+        private final long timeNanos;
+        private final String name;
+        private final String seq;
+        private final String payload;
+        private final boolean success;
+
+        Entry(Kind kind, long timeNanos, String name, String seq, String payload, boolean success) {
+            this.kind = kind;
+            this.timeNanos = timeNanos;
+            this.name = name;
+            this.seq = seq;
+            this.payload = payload;
+            this.success = success;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return Nanoseconds since the recording started
+         */
+        public long getTimeNanos() {
+            return timeNanos;
+        }
+
+        /**
+         * @return The binding name of a CALL, the key of an OBJECT
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The sequence id of a CALL or RETURN
+         */
+        public String getSeq() {
+            return seq;
+        }
+
+        /**
+         * @return The request, result, script or object id
+         */
+        public String getPayload() {
+            return payload;
+        }
+
+        /**
+         * @return false for a RETURN that rejected the JS promise
+         */
+        public boolean isSuccess() {
+            return success;
+        }
+    }
+}
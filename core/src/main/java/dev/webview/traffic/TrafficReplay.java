@@ -0,0 +1,342 @@
+package dev.webview.traffic;
+
+import dev.webview.Webview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replays the calls of a {@link TrafficRecording} against an application
+ * running on a {@link HeadlessWebviewNative}, and measures how long each call
+ * takes until its result is returned.
+ *
+ * Object ids are only valid for one session, so UUIDs in the recorded requests
+ * are rewritten to the ids of the replayed objects, matched by the keys the
+ * bridge reports through {@link TrafficListener#onObject}.
+ *
+ * <pre>
+ *   TrafficReplay.Report report = TrafficReplay.run(TrafficRecording.read(log), 0, webview -> {
+ *       WebviewBridge bridge = new WebviewBridge(webview);
+ *       bridge.defineObject("App", new AppObject(bridge));
+ *   });
+ *   System.out.println(report);
+ * </pre>
+ */
+public final class TrafficReplay {
+    // Calls still unanswered this long after the last one was sent are given up on
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final Pattern UUID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private TrafficReplay() {
+    }
+
+    /**
+     * Replays a recording and waits until all calls are answered.
+     *
+     * @param recording The recorded session
+     * @param speed 1 keeps the recorded pacing, 2 replays twice as fast, 0 as fast as possible
+     * @param setup Sets up the application on the headless webview, e.g. creates
+     *              the WebviewBridge and defines the same objects as when recording
+     */
+    public static Report run(TrafficRecording recording, double speed, Consumer<Webview> setup) throws InterruptedException {
+        HeadlessWebviewNative headless = new HeadlessWebviewNative();
+        Webview webview = new Webview(false, headless);
+        Session session = new Session(recording);
+        webview.setTrafficListener(session);
+        setup.accept(webview);
+
+        Thread loop = new Thread(webview::run, "webview-replay");
+        loop.setDaemon(true);
+        loop.start();
+
+        List<TrafficRecording.Entry> calls = new ArrayList<>();
+        for (TrafficRecording.Entry entry : recording.getEntries()) {
+            if (entry.getKind() == TrafficRecording.Kind.CALL) calls.add(entry);
+        }
+
+        long start = System.nanoTime();
+        long firstCall = calls.isEmpty() ? 0 : calls.get(0).getTimeNanos();
+        int sequence = 0;
+        for (TrafficRecording.Entry call : calls) {
+            if (speed > 0) {
+                long wait = start + (long) ((call.getTimeNanos() - firstCall) / speed) - System.nanoTime();
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            String seq = "replay-" + (++sequence);
+            session.sent(seq, group(call.getName(), call.getPayload()));
+            headless.post(() -> {
+                if (!headless.call(call.getName(), seq, session.remap(call.getPayload()))) {
+                    session.unbound(seq);
+                }
+            });
+        }
+
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (!session.pending.isEmpty() && System.nanoTime() - deadline < 0) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        webview.terminate();
+        loop.join(TimeUnit.NANOSECONDS.toMillis(DRAIN_TIMEOUT_NANOS));
+        webview.setTrafficListener(null);
+        webview.destroy();
+        return session.report(calls.size(), elapsed);
+    }
+
+    /**
+     * Calls are grouped by binding and, for bridge messages ({@code ["TYPE", ...]}), by message type.
+     */
+    static String group(String name, String request) {
+        if (request != null && request.startsWith("[\"")) {
+            int end = request.indexOf('"', 2);
+            if (end > 2) {
+                String type = request.substring(2, end);
+                if (type.chars().allMatch(c -> (c >= 'A' && c <= 'Z') || c == '_')) return name + " " + type;
+            }
+        }
+        return name;
+    }
+
+    private static final class Session implements TrafficListener {
+        private final List<TrafficRecording.Entry> recordedObjects = new ArrayList<>();
+        private final Map<String, List<Long>> recordedLatencies = new HashMap<>();
+        private final Map<String, String> ids = new ConcurrentHashMap<>();
+        private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+        private final Map<String, List<Long>> latencies = new HashMap<>();
+        private long unbound = 0;
+        private long evals = 0;
+        private long evalChars = 0;
+
+        Session(TrafficRecording recording) {
+            Map<String, TrafficRecording.Entry> calls = new HashMap<>();
+            for (TrafficRecording.Entry entry : recording.getEntries()) {
+                switch (entry.getKind()) {
+                    case OBJECT:
+                        recordedObjects.add(entry);
+                        break;
+                    case CALL:
+                        calls.put(entry.getSeq(), entry);
+                        break;
+                    case RETURN: {
+                        TrafficRecording.Entry call = calls.remove(entry.getSeq());
+                        if (call != null) {
+                            recordedLatencies.computeIfAbsent(group(call.getName(), call.getPayload()), g -> new ArrayList<>())
+                                .add(entry.getTimeNanos() - call.getTimeNanos());
+                        }
+                        break;
+                    }
+                    default:
+                        break;
+                }
+            }
+        }
+
+        void sent(String seq, String group) {
+            pending.put(seq, new Pending(group, System.nanoTime()));
+        }
+
+        synchronized void unbound(String seq) {
+            if (pending.remove(seq) != null) unbound++;
+        }
+
+        /**
+         * Rewrites the recorded object ids in a request to the replayed ones.
+         */
+        String remap(String request) {
+            if (request == null || ids.isEmpty()) return request;
+            Matcher matcher = UUID.matcher(request);
+            StringBuilder sb = null;
+            int last = 0;
+            while (matcher.find()) {
+                String replacement = ids.get(matcher.group());
+                if (replacement == null) continue;
+                if (sb == null) sb = new StringBuilder(request.length());
+                sb.append(request, last, matcher.start()).append(replacement);
+                last = matcher.end();
+            }
+            if (sb == null) return request;
+            return sb.append(request, last, request.length()).toString();
+        }
+
+        @Override
+        public void onCall(String name, String seq, String request) {
+        }
+
+        @Override
+        public void onReturn(String seq, boolean success, String result) {
+            long now = System.nanoTime();
+            Pending call = pending.remove(seq);
+            if (call == null) return;
+            synchronized (this) {
+                latencies.computeIfAbsent(call.group, g -> new ArrayList<>()).add(now - call.sentNanos);
+            }
+        }
+
+        @Override
+        public synchronized void onEval(String script) {
+            evals++;
+            evalChars += script.length();
+        }
+
+        @Override
+        public synchronized void onObject(String key, String id) {
+            // Keys of sub-objects contain their parent's id, compare them as they are sent now
+            for (TrafficRecording.Entry recorded : recordedObjects) {
+                if (ids.containsKey(recorded.getPayload())) continue;
+                if (remap(recorded.getName()).equals(key)) {
+                    ids.put(recorded.getPayload(), id);
+                    return;
+                }
+            }
+        }
+
+        synchronized Report report(int calls, long elapsedNanos) {
+            Map<String, Latencies> replayed = new TreeMap<>();
+            latencies.forEach((group, values) -> replayed.put(group, new Latencies(values)));
+            Map<String, Latencies> recorded = new TreeMap<>();
+            recordedLatencies.forEach((group, values) -> recorded.put(group, new Latencies(values)));
+            return new Report(calls, pending.size(), unbound, evals, evalChars, elapsedNanos, replayed, recorded);
+        }
+    }
+
+    private static final class Pending {
+        final String group;
+        final long sentNanos;
+
+        Pending(String group, long sentNanos) {
+            this.group = group;
+            this.sentNanos = sentNanos;
+        }
+    }
+
+    /**
+     * Outcome of a replay.
+     */
+    public static final class Report {
+        private final int calls;
+        private final int unanswered;
+        private final long unbound;
+        private final long evals;
+        private final long evalChars;
+        private final long elapsedNanos;
+        private final Map<String, Latencies> latencies;
+        private final Map<String, Latencies> recordedLatencies;
+
+        Report(int calls, int unanswered, long unbound, long evals, long evalChars, long elapsedNanos,
+               Map<String, Latencies> latencies, Map<String, Latencies> recordedLatencies) {
+            this.calls = calls;
+            this.unanswered = unanswered;
+            this.unbound = unbound;
+            this.evals = evals;
+            this.evalChars = evalChars;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.recordedLatencies = recordedLatencies;
+        }
+
+        /** @return Number of calls replayed */
+        public int getCalls() {
+            return calls;
+        }
+
+        /** @return Calls without a result when the replay gave up waiting */
+        public int getUnanswered() {
+            return unanswered;
+        }
+
+        /** @return Calls to bindings the replayed application doesn't define */
+        public long getUnbound() {
+            return unbound;
+        }
+
+        /** @return Scripts evaluated by the application during the replay */
+        public long getEvals() {
+            return evals;
+        }
+
+        /** @return Total length of those scripts, in chars */
+        public long getEvalChars() {
+            return evalChars;
+        }
+
+        /** @return Wall time from the first call until all results were returned */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /** @return Call-to-return latencies of the replay, by group ("binding" or "binding TYPE") */
+        public Map<String, Latencies> getLatencies() {
+            return latencies;
+        }
+
+        /** @return The same latencies as they were recorded, including the page's share */
+        public Map<String, Latencies> getRecordedLatencies() {
+            return recordedLatencies;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "%d calls in %.1f ms (%.0f calls/s), %d unanswered, %d unbound, %d evals (%d chars)%n",
+                calls, elapsedNanos / 1e6, calls / Math.max(elapsedNanos / 1e9, 1e-9), unanswered, unbound, evals, evalChars));
+            sb.append(String.format(Locale.ROOT, "%-32s %8s %10s %10s %10s %10s %12s%n",
+                "latency (us)", "count", "p50", "p90", "p99", "max", "recorded p50"));
+            latencies.forEach((group, values) -> {
+                Latencies recorded = recordedLatencies.get(group);
+                sb.append(String.format(Locale.ROOT, "%-32s %8d %10.1f %10.1f %10.1f %10.1f %12s%n", group, values.getCount(),
+                    values.percentile(50) / 1e3, values.percentile(90) / 1e3, values.percentile(99) / 1e3, values.getMax() / 1e3,
+                    recorded != null ? String.format(Locale.ROOT, "%.1f", recorded.percentile(50) / 1e3) : "-"));
+            });
+            return sb.toString();
+        }
+    }
+
+    /**
+     * A latency distribution, in nanoseconds.
+     */
+    public static final class Latencies {
+        private final long[] sorted;
+
+        Latencies(List<Long> values) {
+            sorted = new long[values.size()];
+            for (int i = 0; i < sorted.length; i++) sorted[i] = values.get(i);
+            Arrays.sort(sorted);
+        }
+
+        public int getCount() {
+            return sorted.length;
+        }
+
+        /**
+         * @param percent 0 to 100
+         * @return The latency below which the given share of calls completed (nearest rank)
+         */
+        public long percentile(double percent) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(percent / 100 * sorted.length);
+            return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+        }
+
+        public long getMax() {
+            return sorted.length > 0 ? sorted[sorted.length - 1] : 0;
+        }
+
+        public double getMean() {
+            if (sorted.length == 0) return 0;
+            double sum = 0;
+            for (long value : sorted) sum += value;
+            return sum / sorted.length;
+        }
+    }
+}
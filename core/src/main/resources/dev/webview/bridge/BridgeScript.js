@@ -1,12 +1,820 @@
 (function() {
     if (window.Bridge) return;
 
+    // Page load timeline reported to Java (PageLoadTimeline), in ms since performance.timeOrigin
+    const loadMarks = { 'runtime.start': performance.now() };
+    let propertyFetches = 0;
+    let timelineReported = false;
+    // Between READY and pagehide, see dispatchBroadcast()
+    let pageShown = false;
+
+    // Console output level: 0 off, 1 error, 2 warn, 3 info, 4 debug.
+    // Java injects the configured level and strips the disabled log lines.
+    const LOG_LEVEL = 4;
+    const ERROR = 1, WARN = 2, INFO = 3, DEBUG = 4;
+
     const __bridgeInternal = window.__bridgeInternal;
     delete window.__bridgeInternal; // Hide internal function
 
+    // Identifies this page load; Java drops events addressed to an older one
+    const generation = Date.now().toString(36) + '-' + Math.random().toString(36).slice(2, 10);
+
     let objectRegistry = {};
     let eventListeners = {}; // Event listener registry
 
+    function removeListener(eventType, callback) {
+        const listeners = eventListeners[eventType];
+        if (!listeners) return;
+
+        const index = listeners.indexOf(callback);
+        if (index > -1) {
+            listeners.splice(index, 1);
+        }
+
+        // Last listener gone: Java can stop emitting this event type
+        if (listeners.length === 0) {
+            delete eventListeners[eventType];
+            Bridge.__internal.sendMessageToJava('UNSUBSCRIBE', { event: eventType });
+        }
+    }
+
+    /**
+     * Store a value received from Java in an object's property cache.
+     * Observable collections arrive as { __bridgeType: 'collection', version, value }
+     * and remember their version so later patches can be applied on top.
+     */
+    function cacheValue(objectId, propertyName, value) {
+        const obj = objectRegistry[objectId];
+        if (!obj) return value;
+
+        const internal = obj.__internal;
+        if (pendingWrites.has(internal.id + '.' + propertyName)) { // the id writes are sent with
+            // A newer local value is still waiting to be sent to Java
+            return internal.propertyCache[propertyName];
+        }
+        if (value && value.__bridgeType === 'collection') {
+            internal.propertyVersions[propertyName] = value.version;
+            value = value.value;
+        } else {
+            delete internal.propertyVersions[propertyName];
+        }
+        internal.propertyCache[propertyName] = value;
+        internal.fetched.add(propertyName);
+        return value;
+    }
+
+    /**
+     * Lists of records sent column by column (ColumnarEncoder) become arrays
+     * whose rows are decoded on first access; anything else is returned as is.
+     */
+    function decodeColumns(value) {
+        if (!value || value.__bridgeType !== 'columns') return value;
+
+        const { length, fields, columns } = value;
+        const cells = columns.map(column => Array.isArray(column)
+            ? (i => decodeColumns(column[i]))
+            : (i => column.codes[i] < 0 ? null : column.dict[column.codes[i]]));
+        const rows = new Array(length);
+        const decoded = new Uint8Array(length);
+
+        // Index of a row not decoded yet, or -1
+        function pendingRow(key) {
+            if (typeof key !== 'string') return -1;
+            const index = Number(key);
+            if (!Number.isInteger(index) || index < 0 || index >= Math.min(length, rows.length) || decoded[index]) return -1;
+            return index;
+        }
+
+        function decodeRow(key) {
+            const index = pendingRow(key);
+            if (index < 0) return;
+            decoded[index] = 1;
+            const row = {};
+            for (let f = 0; f < fields.length; f++) {
+                row[fields[f]] = cells[f](index);
+            }
+            rows[index] = row;
+        }
+
+        return new Proxy(rows, {
+            get(target, key, receiver) {
+                decodeRow(key);
+                return Reflect.get(target, key, receiver);
+            },
+            has(target, key) {
+                decodeRow(key);
+                return Reflect.has(target, key);
+            },
+            getOwnPropertyDescriptor(target, key) {
+                decodeRow(key);
+                return Reflect.getOwnPropertyDescriptor(target, key);
+            },
+            ownKeys(target) {
+                for (let i = 0; i < length; i++) decodeRow(String(i));
+                return Reflect.ownKeys(target);
+            },
+            // Writes replace the row for good, it must not be decoded over them later
+            set(target, key, value) {
+                const index = pendingRow(key);
+                if (index >= 0) decoded[index] = 1;
+                return Reflect.set(target, key, value);
+            },
+            defineProperty(target, key, descriptor) {
+                const index = pendingRow(key);
+                if (index >= 0) decoded[index] = 1;
+                return Reflect.defineProperty(target, key, descriptor);
+            },
+            deleteProperty(target, key) {
+                const index = pendingRow(key);
+                if (index >= 0) decoded[index] = 1;
+                return Reflect.deleteProperty(target, key);
+            }
+        });
+    }
+
+    // Pending coalesced writes for properties with a write policy, latest value wins
+    const pendingWrites = new Map(); // 'id.property' -> { id, property, newValue }
+    const writeTimers = {};
+    const lastWriteTimes = {};
+    const frameWrites = new Set();
+    let frameScheduled = false;
+
+    function scheduleWrite(id, property, newValue, writePolicy) {
+        const key = id + '.' + property;
+        pendingWrites.set(key, { id, property, newValue });
+
+        switch (writePolicy.policy) {
+            case 'debounce':
+                clearTimeout(writeTimers[key]);
+                writeTimers[key] = setTimeout(() => flushWrites([key]), writePolicy.interval);
+                break;
+
+            case 'throttle': {
+                if (writeTimers[key]) break; // trailing write already scheduled
+                const wait = (lastWriteTimes[key] || 0) + writePolicy.interval - Date.now();
+                if (wait <= 0) {
+                    flushWrites([key]);
+                } else {
+                    writeTimers[key] = setTimeout(() => flushWrites([key]), wait);
+                }
+                break;
+            }
+
+            case 'frame':
+                frameWrites.add(key);
+                if (!frameScheduled) {
+                    frameScheduled = true;
+                    requestAnimationFrame(() => {
+                        frameScheduled = false;
+                        const keys = Array.from(frameWrites);
+                        frameWrites.clear();
+                        flushWrites(keys);
+                    });
+                }
+                break;
+        }
+    }
+
+    function flushWrites(keys) {
+        const writes = [];
+        for (const key of keys) {
+            const write = pendingWrites.get(key);
+            clearTimeout(writeTimers[key]);
+            delete writeTimers[key];
+            if (!write) continue;
+
+            pendingWrites.delete(key);
+            lastWriteTimes[key] = Date.now();
+            writes.push(write);
+            // A read while the write was pending kept the local value, fetch Java's once it is sent
+            const obj = objectRegistry[write.id];
+            if (obj) obj.__internal.fetched.delete(write.property);
+        }
+
+        if (writes.length === 1) {
+            Bridge.__internal.sendMessageToJava('SET', writes[0]);
+        } else if (writes.length > 1) {
+            Bridge.__internal.sendMessageToJava('SET_BATCH', { writes });
+        }
+    }
+
+    // Don't lose the last value of a throttled/debounced property on navigation
+    window.addEventListener('pagehide', () => flushWrites(Array.from(pendingWrites.keys())));
+
+    // Results of Java -> JS calls settled in the same tick go back in one message
+    let pendingResults = [];
+
+    function sendResult(result) {
+        pendingResults.push(result);
+        if (pendingResults.length === 1) {
+            queueMicrotask(() => {
+                const results = pendingResults;
+                pendingResults = [];
+                Bridge.__internal.sendMessageToJava('RESULTS', { results });
+            });
+        }
+    }
+
+    async function runCall(call) {
+        try {
+            let result;
+            if (call.eval !== undefined) {
+                result = (0, eval)(call.eval); // indirect eval: global scope
+            } else {
+                const parts = call.fn.split('.');
+                const name = parts.pop();
+                let target = window;
+                for (const part of parts) {
+                    target = target[part];
+                }
+                if (!target || typeof target[name] !== 'function') {
+                    throw new Error(call.fn + ' is not a function');
+                }
+                result = target[name].apply(target, call.args);
+            }
+            result = await result;
+            sendResult({ id: call.id, value: result === undefined ? null : result });
+        } catch (error) {
+            sendResult({ id: call.id, error: String(error && error.message !== undefined ? error.message : error) });
+        }
+    }
+
+    // Background calls wait for idle time and for in-flight interactive calls
+    const backgroundCalls = [];
+    let interactiveInFlight = 0;
+    let idleScheduled = false;
+
+    function scheduleBackground() {
+        if (idleScheduled || backgroundCalls.length === 0 || interactiveInFlight > 0) return;
+        idleScheduled = true;
+        if (window.requestIdleCallback) {
+            requestIdleCallback(runBackground, { timeout: 1000 });
+        } else {
+            setTimeout(() => runBackground(null), 16);
+        }
+    }
+
+    function runBackground(deadline) {
+        idleScheduled = false;
+        let sent = 0;
+        while (backgroundCalls.length > 0 && interactiveInFlight === 0) {
+            // Always make progress, then only while the idle period lasts
+            if (sent > 0 && deadline && deadline.timeRemaining() < 1) break;
+            backgroundCalls.shift()();
+            sent++;
+        }
+        scheduleBackground();
+    }
+
+    // Admission control for INVOKE: calls over a limit wait here, and are rejected
+    // once the queue is full. Java sends its limits in reply to LOADING.
+    const callLimits = { perObject: 64, total: 256, queued: 1024 };
+    const inFlightByObject = new Map();
+    let inFlightTotal = 0;
+    const waitingCalls = []; // { id, resolve, reject }
+    let rejectedCalls = 0;
+    let overloadWarned = false;
+
+    function hasCallSlot(id) {
+        return inFlightTotal < callLimits.total && (inFlightByObject.get(id) || 0) < callLimits.perObject;
+    }
+
+    function takeCallSlot(id) {
+        inFlightTotal++;
+        inFlightByObject.set(id, (inFlightByObject.get(id) || 0) + 1);
+    }
+
+    function overloadError(message) {
+        rejectedCalls++;
+        if (!overloadWarned) {
+            overloadWarned = true;
+            if (LOG_LEVEL >= WARN) console.warn('[Bridge] Too many calls to Java in flight, rejecting calls until they drain');
+        }
+        const error = new Error(message);
+        error.name = 'BridgeOverloadError';
+        return error;
+    }
+
+    // Resolves once the call may be sent
+    function acquireCallSlot(id) {
+        if (hasCallSlot(id)) {
+            takeCallSlot(id);
+            return Promise.resolve();
+        }
+        if (waitingCalls.length >= callLimits.queued) {
+            return Promise.reject(overloadError('Too many bridge calls queued'));
+        }
+        return new Promise((resolve, reject) => waitingCalls.push({ id, resolve, reject }));
+    }
+
+    function releaseCallSlot(id) {
+        inFlightTotal--;
+        const count = inFlightByObject.get(id) - 1;
+        if (count > 0) inFlightByObject.set(id, count); else inFlightByObject.delete(id);
+        if (inFlightTotal === 0) overloadWarned = false;
+        startWaitingCalls();
+    }
+
+    // Starts waiting calls in order, skipping those whose object is still at its limit
+    function startWaitingCalls() {
+        for (let i = 0; i < waitingCalls.length && inFlightTotal < callLimits.total;) {
+            const call = waitingCalls[i];
+            if (hasCallSlot(call.id)) {
+                waitingCalls.splice(i, 1);
+                takeCallSlot(call.id);
+                call.resolve();
+            } else {
+                i++;
+            }
+        }
+    }
+
+    async function sendInvoke(message) {
+        await acquireCallSlot(message.id);
+        try {
+            return decodeColumns(await Bridge.__internal.sendMessageToJava('INVOKE', message));
+        } catch (error) {
+            // Java turned the call away
+            if (error && error.error === 'overloaded') throw overloadError(error.message);
+            throw error;
+        } finally {
+            releaseCallSlot(message.id);
+        }
+    }
+
+    // JS functions passed as INVOKE arguments, by handle, until the Java call returns
+    const callbacks = new Map();
+    let nextCallbackHandle = 1;
+
+    function applyCollectionOp(target, op) {
+        switch (op[0]) {
+            case 'i': target.splice(op[1], 0, op[2]); break;
+            case 'r': target.splice(op[1], op[2]); break;
+            case 's': target[op[1]] = op[2]; break;
+            case 'm': target.splice(op[2], 0, target.splice(op[1], 1)[0]); break;
+            case 'p': target[op[1]] = op[2]; break;
+            case 'd': delete target[op[1]]; break;
+            case 'c':
+                if (Array.isArray(target)) {
+                    target.length = 0;
+                } else {
+                    Object.keys(target).forEach(key => delete target[key]);
+                }
+                break;
+            case 'a':
+                applyCollectionOp(target, ['c']);
+                Object.assign(target, op[1]);
+                break;
+        }
+    }
+
+    // Views rendered by Java (RenderRoot): DOM nodes by id per root, node 0 is the container
+    const domRoots = {};
+    const DOM_PROPERTIES = { value: '', checked: false, selected: false };
+
+    function setDomAttribute(element, name, value) {
+        if (name in DOM_PROPERTIES) {
+            element[name] = value === null ? DOM_PROPERTIES[name] : (name === 'value' ? value : value !== 'false');
+        } else if (value === null) {
+            element.removeAttribute(name);
+        } else {
+            element.setAttribute(name, value);
+        }
+    }
+
+    function listenDom(root, element, id, type, listen) {
+        const key = id + ':' + type;
+        const previous = root.listeners.get(key);
+        if (previous) {
+            element.removeEventListener(type, previous);
+            root.listeners.delete(key);
+            element.__bridgeEvents.delete(type);
+        }
+        if (!listen) return;
+
+        const listener = (event) => {
+            if (type === 'submit') event.preventDefault();
+            const target = event.target || {};
+            Bridge.__internal.sendMessageToJava('DOM_EVENT', {
+                root: root.id,
+                node: id,
+                event: type,
+                value: target.value !== undefined ? String(target.value) : null,
+                checked: target.checked !== undefined ? Boolean(target.checked) : null,
+                key: event.key !== undefined ? event.key : null
+            });
+        };
+        element.addEventListener(type, listener);
+        root.listeners.set(key, listener);
+        // Event types of the node, for forgetDomNode()
+        (element.__bridgeEvents || (element.__bridgeEvents = new Set())).add(type);
+    }
+
+    function createDomNode(root, spec) {
+        const id = spec[0];
+        let node;
+        if (spec[1] === '#text') {
+            node = document.createTextNode(spec[2]);
+        } else {
+            node = document.createElement(spec[1]);
+            for (const name in spec[2]) {
+                setDomAttribute(node, name, spec[2][name]);
+            }
+            for (const type of spec[3]) {
+                listenDom(root, node, id, type, true);
+            }
+            for (const child of spec[4]) {
+                node.appendChild(createDomNode(root, child));
+            }
+        }
+        node.__bridgeNodeId = id;
+        root.nodes.set(id, node);
+        return node;
+    }
+
+    function forgetDomNode(root, node) {
+        root.nodes.delete(node.__bridgeNodeId);
+        // Node ids are never reused, their listener entries would pile up
+        for (const type of node.__bridgeEvents || []) {
+            root.listeners.delete(node.__bridgeNodeId + ':' + type);
+        }
+        for (const child of node.childNodes) {
+            forgetDomNode(root, child);
+        }
+    }
+
+    function applyDomOp(root, op) {
+        const nodes = root.nodes;
+        switch (op[0]) {
+            case 'i':
+                nodes.get(op[1]).insertBefore(createDomNode(root, op[3]), op[2] === null ? null : nodes.get(op[2]));
+                break;
+            case 'm':
+                nodes.get(op[1]).insertBefore(nodes.get(op[2]), op[3] === null ? null : nodes.get(op[3]));
+                break;
+            case 'r': {
+                const node = nodes.get(op[1]);
+                forgetDomNode(root, node);
+                node.remove();
+                break;
+            }
+            case 't': nodes.get(op[1]).data = op[2]; break;
+            case 'a': setDomAttribute(nodes.get(op[1]), op[2], op[3]); break;
+            case 'e': listenDom(root, nodes.get(op[1]), op[1], op[2], op[3]); break;
+        }
+    }
+
+    // Shared state stores mirrored from Java (BridgeStore), by name
+    const stores = {};
+
+    function splitPath(path) {
+        return path === '' ? [] : path.split('.');
+    }
+
+    function getIn(node, keys) {
+        for (const key of keys) {
+            if (node === null || typeof node !== 'object') return undefined;
+            node = node[key];
+        }
+        return node;
+    }
+
+    // Copies the objects along the path and shares everything else, so unchanged
+    // parts of the state keep their identity across commits
+    function setIn(node, keys, index, value, remove) {
+        const copy = node !== null && typeof node === 'object' && !Array.isArray(node) ? Object.assign({}, node) : {};
+        const key = keys[index];
+        if (index === keys.length - 1) {
+            if (remove) delete copy[key]; else copy[key] = value;
+        } else {
+            copy[key] = setIn(copy[key], keys, index + 1, value, remove);
+        }
+        return copy;
+    }
+
+    function pathsOverlap(a, b) {
+        return a === '' || b === '' || a === b || a.startsWith(b + '.') || b.startsWith(a + '.');
+    }
+
+    function getStore(name) {
+        if (stores[name]) return stores[name];
+
+        const entry = { version: 0, state: {}, syncing: false, subscribers: new Set() };
+
+        // Calls the subscribers whose selected value changed; changedPaths null: all may have
+        entry.notify = (changedPaths) => {
+            for (const subscriber of entry.subscribers) {
+                if (changedPaths && subscriber.path !== null && !changedPaths.some(path => pathsOverlap(path, subscriber.path))) continue;
+                let value;
+                try {
+                    value = subscriber.select(entry.state);
+                } catch (error) {
+                    if (LOG_LEVEL >= ERROR) console.error('[Bridge] Error in selector of store', name, ':', error);
+                    continue;
+                }
+                if (Object.is(value, subscriber.value)) continue;
+                const previous = subscriber.value;
+                subscriber.value = value;
+                try {
+                    subscriber.callback(value, previous);
+                } catch (error) {
+                    if (LOG_LEVEL >= ERROR) console.error('[Bridge] Error in subscriber of store', name, ':', error);
+                }
+            }
+        };
+
+        function commit(ops) {
+            return Bridge.__internal.sendMessageToJava('STORE_COMMIT', { store: name, ops });
+        }
+
+        entry.api = Object.freeze({
+            name,
+
+            /** Number of commits the current state is the result of */
+            get version() {
+                return entry.version;
+            },
+
+            /** The current state (read-only, replaced on every commit) */
+            get state() {
+                return entry.state;
+            },
+
+            /**
+             * @param {string} path - Dot-separated path, e.g. "user.name"
+             */
+            get(path) {
+                return getIn(entry.state, splitPath(path));
+            },
+
+            /**
+             * Call back when the selected value changes. A path selector is only
+             * evaluated for commits touching that path; a function selector for
+             * every commit, compared by identity.
+             * @param {string|function} selector - A path, or state => value
+             * @param {function} callback - (value, previous) => void
+             * @returns {function} Unsubscribe function
+             */
+            subscribe(selector, callback) {
+                const path = typeof selector === 'string' ? selector : null;
+                const keys = path !== null ? splitPath(path) : null;
+                const select = path !== null ? (state => getIn(state, keys)) : selector;
+                if (typeof select !== 'function' || typeof callback !== 'function') {
+                    throw new Error('subscribe() requires a path or selector function and a callback');
+                }
+                const subscriber = { path, select, callback, value: select(entry.state) };
+                entry.subscribers.add(subscriber);
+                return () => entry.subscribers.delete(subscriber);
+            },
+
+            /** Commit in Java; resolves with the new version */
+            set(path, value) {
+                return commit([['s', path, value]]);
+            },
+
+            remove(path) {
+                return commit([['d', path]]);
+            },
+
+            /**
+             * Commit several paths atomically, undefined values remove them
+             * @param {Object} changes - { "user.name": "Ada", "user.away": undefined }
+             */
+            update(changes) {
+                return commit(Object.keys(changes).map(path =>
+                    changes[path] === undefined ? ['d', path] : ['s', path, changes[path]]));
+            }
+        });
+        stores[name] = entry;
+        return entry;
+    }
+
+    /**
+     * Create the JS side of an exposed Java object
+     * @param {string} id - Object id ("parentId/name" for sub-objects)
+     * @param {boolean} lazy - Fetch property values on first read instead of now
+     */
+    function createObject(id, lazy) {
+        let proxy;
+        const propertyCache = {}; // Cache for property values
+        const propertyVersions = {}; // Versions of cached observable collections
+        const fetched = new Set(); // Properties fetched (or being fetched) once, kept current by updates
+        const unknownKeys = new Set(); // Keys the page asked for that the schema doesn't have
+
+        function fetchProperty(name) {
+            fetched.add(name);
+            const request = Bridge.__internal.get(id, name);
+            request.catch(() => fetched.delete(name)); // retry on the next read
+            return request;
+        }
+
+        const object = {
+            __internal: {
+                id: id,
+                propertyCache: propertyCache,
+                propertyVersions: propertyVersions,
+                fetched: fetched,
+
+                /**
+                 * Fetch a property from Java again, for values Java changes
+                 * without emitPropertyUpdate()
+                 * @param {string} name - The property name
+                 * @returns {Promise} The fresh value
+                 */
+                refresh(name) {
+                    return fetchProperty(name);
+                },
+
+                /**
+                 * Define all members in one call
+                 * @param {Array} functions - names, or [name, priority] for non-normal priorities
+                 * @param {object} properties - name -> write policy (or null)
+                 * @param {object} [subObjects] - name -> type key, exposed on first access
+                 */
+                defineMembers(functions, properties, subObjects) {
+                    for (const func of functions) {
+                        if (Array.isArray(func)) {
+                            object.__internal.defineFunction(func[0], func[1]);
+                        } else {
+                            object.__internal.defineFunction(func);
+                        }
+                    }
+                    for (const name in properties) {
+                        object.__internal.defineProperty(name, properties[name] || undefined);
+                    }
+                    for (const name in subObjects || {}) {
+                        object.__internal.defineSubObject(name, subObjects[name]);
+                    }
+                },
+
+                /**
+                 * @param {string} name - The function name
+                 * @param {string} [priority] - 'interactive' | 'normal' | 'background'
+                 */
+                defineFunction(name, priority) {
+                    object[name] = async function() {
+                        return await Bridge.__internal.invoke(
+                            id,
+                            name,
+                            Array.from(arguments),
+                            priority
+                        );
+                    };
+                    // Per-call priority: obj.fn.withPriority('interactive')(...args)
+                    object[name].withPriority = (callPriority) => (...args) =>
+                        Bridge.__internal.invoke(id, name, args, callPriority);
+                },
+
+                /**
+                 * @param {string} name - The property name
+                 * @param {object} [writePolicy] - { policy: 'throttle'|'debounce'|'frame', interval }
+                 */
+                defineProperty(name, writePolicy) {
+                    // Initialize property in cache
+                    propertyCache[name] = undefined;
+                    
+                    Object.defineProperty(object, name, {
+                        get() {
+                            // Fetched once (and once after each page write); after that
+                            // propertyUpdated events and collection patches keep the cache current
+                            if (!fetched.has(name)) {
+                                fetchProperty(name);
+                            }
+                            return propertyCache[name];
+                        },
+                        set(value) {
+                            // Shown until the next read fetches what Java made of it: Java may reject
+                            // or convert the value, and versions a collection it assigns anew
+                            propertyCache[name] = value;
+                            fetched.delete(name);
+                            delete propertyVersions[name];
+                            if (writePolicy) {
+                                scheduleWrite(id, name, value, writePolicy);
+                            } else {
+                                Bridge.__internal.set(id, name, value);
+                            }
+                        },
+                        enumerable: true,
+                        configurable: true
+                    });
+                    
+                    // Fetch initial value (lazily exposed objects fetch on first read)
+                    if (!lazy) {
+                        fetchProperty(name);
+                    }
+                },
+
+                /**
+                 * Sub-object fields that are null in Java, unless already materialized
+                 * @param {string[]} names - The field names
+                 */
+                setNullSubObjects(names) {
+                    for (const name of names) {
+                        const descriptor = Object.getOwnPropertyDescriptor(object, name);
+                        if (descriptor && descriptor.get) {
+                            Object.defineProperty(object, name, { value: null, writable: true, enumerable: true, configurable: true });
+                        }
+                    }
+                },
+
+                /**
+                 * A sub-object materialized from its type's schema on first access
+                 * @param {string} name - The field name
+                 * @param {string} typeKey - Key passed to defineType()
+                 */
+                defineSubObject(name, typeKey) {
+                    Object.defineProperty(object, name, {
+                        get() {
+                            const child = exposeSubObject(id, name, typeKey);
+                            Object.defineProperty(object, name, {
+                                value: child,
+                                writable: true,
+                                enumerable: true,
+                                configurable: true
+                            });
+                            return child;
+                        },
+                        enumerable: true,
+                        configurable: true
+                    });
+                }
+            }
+        };
+
+        // The schema lists every member up front, so keys it doesn't have (then, toJSON,
+        // symbols, devtools probes, ...) are answered locally instead of asking Java
+        const handler = {
+            get(obj, property) {
+                if (property in obj || typeof property === 'symbol') {
+                    return obj[property];
+                }
+                if (!unknownKeys.has(property)) {
+                    unknownKeys.add(property);
+                    if (LOG_LEVEL >= DEBUG) console.log('[Bridge] No member', property, 'on', id);
+                }
+                return undefined;
+            },
+            set(obj, property, value) {
+                // Bridge properties go through their setters; anything else stays local
+                obj[property] = value;
+                return true;
+            }
+        };
+
+        Object.freeze(object.__internal);
+        proxy = new Proxy(object, handler);
+        objectRegistry[id] = proxy;
+        return proxy;
+    }
+
+    // Member schemas of object types, for lazily exposed sub-objects
+    const objectTypes = {};
+
+    function exposeSubObject(parentId, name, typeKey) {
+        const id = parentId + '/' + name;
+        const child = createObject(id, true);
+        const type = objectTypes[typeKey];
+        if (type) {
+            child.__internal.defineMembers(type.functions, type.properties, type.subObjects);
+        }
+        // Java attaches the instance and answers with its own id, used by its events,
+        // and with the members of its class if that is not the declared type
+        Bridge.__internal.sendMessageToJava('EXPOSE', { id }).then(reply => {
+            if (!reply) return;
+            if (reply.id === null) {
+                // The field was null after all (or became null): drop the stub
+                delete objectRegistry[id];
+                const parent = objectRegistry[parentId];
+                if (parent && parent[name] === child) parent[name] = null;
+                return;
+            }
+            objectRegistry[reply.id] = child;
+            if (reply.nulls) child.__internal.setNullSubObjects(reply.nulls);
+            if (reply.members) {
+                for (const key in reply.types) {
+                    Bridge.__internal.defineType(key, ...reply.types[key]);
+                }
+                addMembers(child, ...reply.members);
+            }
+        });
+        return child;
+    }
+
+    // Defines the members an object doesn't have yet, keeping the cached values of the others
+    function addMembers(target, functions, properties, subObjects) {
+        const missing = name => !Object.prototype.hasOwnProperty.call(target, name);
+        const newProperties = {};
+        const newSubObjects = {};
+        for (const name in properties) {
+            if (missing(name)) newProperties[name] = properties[name];
+        }
+        for (const name in subObjects) {
+            if (missing(name)) newSubObjects[name] = subObjects[name];
+        }
+        target.__internal.defineMembers(functions.filter(func => missing(Array.isArray(func) ? func[0] : func)),
+            newProperties, newSubObjects);
+    }
+
     const Bridge = {
         /**
          * Register an event listener
@@ -21,17 +829,14 @@
             
             if (!eventListeners[eventType]) {
                 eventListeners[eventType] = [];
+                // First listener: let Java start emitting this event type
+                Bridge.__internal.sendMessageToJava('SUBSCRIBE', { event: eventType });
             }
             
             eventListeners[eventType].push(callback);
             
             // Return unsubscribe function
-            return () => {
-                const index = eventListeners[eventType].indexOf(callback);
-                if (index > -1) {
-                    eventListeners[eventType].splice(index, 1);
-                }
-            };
+            return () => removeListener(eventType, callback);
         },
 
         /**
@@ -56,17 +861,33 @@
             if (!eventListeners[eventType]) return;
             
             if (callback) {
-                const index = eventListeners[eventType].indexOf(callback);
-                if (index > -1) {
-                    eventListeners[eventType].splice(index, 1);
-                }
+                removeListener(eventType, callback);
             } else {
                 // Remove all listeners for this event type
                 delete eventListeners[eventType];
+                Bridge.__internal.sendMessageToJava('UNSUBSCRIBE', { event: eventType });
             }
         },
 
+        /**
+         * Get a shared state store (created in Java with bridge.store(name))
+         * @param {string} name - The store name
+         */
+        store(name) {
+            return getStore(name).api;
+        },
+
+        /**
+         * Gauges of the calls to Java
+         * @returns {{inFlight: number, queued: number, rejected: number, limits: Object}}
+         */
+        callStats() {
+            return { inFlight: inFlightTotal, queued: waitingCalls.length, rejected: rejectedCalls, limits: Object.assign({}, callLimits) };
+        },
+
         __internal: {
+            generation,
+
             sendMessageToJava(type, data) {
                 return __bridgeInternal(type, data);
             },
@@ -76,7 +897,7 @@
              * Called by Java's bridge.emit()
              */
             dispatch(eventType, data) {
-                console.log('[Bridge] Event dispatched:', eventType, data);
+                if (LOG_LEVEL >= DEBUG) console.log('[Bridge] Event dispatched:', eventType, data);
                 
                 const listeners = eventListeners[eventType];
                 if (listeners && listeners.length > 0) {
@@ -84,12 +905,30 @@
                         try {
                             callback(data);
                         } catch (error) {
-                            console.error('[Bridge] Error in event listener for', eventType, ':', error);
+                            if (LOG_LEVEL >= ERROR) console.error('[Bridge] Error in event listener for', eventType, ':', error);
                         }
                     });
                 }
             },
 
+            /**
+             * Dispatch events Java buffered until this page was ready
+             * @param {Array} events - [[eventType, data], ...] in emit order
+             */
+            dispatchBatch(events) {
+                for (const [eventType, data] of events) {
+                    Bridge.__internal.dispatch(eventType, data);
+                }
+            },
+
+            /**
+             * Dispatch group broadcasts from a script shared by all windows, which
+             * can't check the generation: dropped unless this page is shown
+             */
+            dispatchBroadcast(events) {
+                if (pageShown) Bridge.__internal.dispatchBatch(events);
+            },
+
             /**
              * Update property cache directly (called by propertyUpdated event)
              * @param {string} objectId - The object ID
@@ -99,85 +938,75 @@
             updatePropertyCache(objectId, propertyName, value) {
                 const obj = objectRegistry[objectId];
                 if (obj && obj.__internal && obj.__internal.propertyCache) {
-                    obj.__internal.propertyCache[propertyName] = value;
-                    console.log('[Bridge] Property cache updated:', objectId, propertyName, '=', value);
+                    value = cacheValue(objectId, propertyName, value);
+                    if (LOG_LEVEL >= DEBUG) console.log('[Bridge] Property cache updated:', objectId, propertyName, '=', value);
                 }
             },
 
-            defineObject(path, id) {
-                const parts = path.split('.');
-                const propertyName = parts.pop();
+            /**
+             * Run Java -> JS calls and report their results (called by Java)
+             * @param {Array} calls - [{ id, fn, args }] or [{ id, eval }]
+             */
+            runCalls(calls) {
+                calls.forEach(runCall);
+            },
 
-                let proxy;
-                const propertyCache = {}; // Cache for property values
-
-                const object = {
-                    __internal: {
-                        id: id,
-                        propertyCache: propertyCache,
-
-                        defineFunction(name) {
-                            object[name] = async function() {
-                                return await Bridge.__internal.invoke(
-                                    id,
-                                    name,
-                                    Array.from(arguments)
-                                );
-                            };
-                        },
+            /**
+             * Run batched callback invocations (called by Java)
+             * @param {Array} invocations - [[handle, args], ...]
+             */
+            runCallbacks(invocations) {
+                for (const [handle, args] of invocations) {
+                    const callback = callbacks.get(handle);
+                    if (!callback) continue; // released already
+                    try {
+                        callback.apply(null, args);
+                    } catch (error) {
+                        if (LOG_LEVEL >= ERROR) console.error('[Bridge] Callback error:', error);
+                    }
+                }
+            },
 
-                        defineProperty(name) {
-                            // Initialize property in cache
-                            propertyCache[name] = undefined;
-                            
-                            Object.defineProperty(object, name, {
-                                get() {
-                                    // Trigger async fetch to update cache
-                                    Bridge.__internal.get(id, name).then(value => {
-                                        propertyCache[name] = value;
-                                    });
-                                    // Return current cached value immediately
-                                    return propertyCache[name];
-                                },
-                                set(value) {
-                                    propertyCache[name] = value;
-                                    Bridge.__internal.set(id, name, value);
-                                },
-                                enumerable: true,
-                                configurable: true
-                            });
-                            
-                            // Fetch initial value
-                            Bridge.__internal.get(id, name).then(value => {
-                                propertyCache[name] = value;
-                            });
-                        }
+            /**
+             * Apply batched collection patches (called by Java)
+             * @param {Array} patches - [{ id, property, from, to, ops }]
+             */
+            applyPatches(patches) {
+                for (const patch of patches) {
+                    const obj = objectRegistry[patch.id];
+                    if (!obj) continue;
+
+                    const internal = obj.__internal;
+                    const version = internal.propertyVersions[patch.property];
+                    // Not fetched yet, or the snapshot we hold already includes this patch
+                    if (version === undefined || patch.to <= version) continue;
+
+                    if (patch.from !== version || !patch.ops) {
+                        // Missed a patch (or too many piled up): resync the whole value
+                        Bridge.__internal.get(patch.id, patch.property);
+                        continue;
                     }
-                };
 
-                const handler = {
-                    get(obj, property) {
-                        // If property exists on object, return it
-                        if (property in obj) {
-                            return obj[property];
-                        }
-                        
-                        // For dynamic properties, trigger fetch and return cached value
-                        Bridge.__internal.get(id, property).then(value => {
-                            propertyCache[property] = value;
-                        });
-                        
-                        return propertyCache[property];
-                    },
-                    set(obj, property, value) {
-                        propertyCache[property] = value;
-                        Bridge.__internal.set(id, property, value);
-                        return true;
+                    const target = internal.propertyCache[patch.property];
+                    for (const op of patch.ops) {
+                        applyCollectionOp(target, op);
                     }
-                };
+                    internal.propertyVersions[patch.property] = patch.to;
+
+                    Bridge.__internal.dispatch('propertyPatched', {
+                        objectId: patch.id,
+                        property: patch.property,
+                        ops: patch.ops
+                    });
+                }
+            },
 
-                Object.freeze(object.__internal);
-                proxy = new Proxy(object, handler);
+            defineObject(path, id) {
+                // Objects defined by init scripts, i.e. before the page's own scripts
+                if (document.readyState === 'loading') loadMarks['objects.defined'] = performance.now();
+                const parts = path.split('.');
+                const propertyName = parts.pop();
+                const proxy = createObject(id, false);
 
                 // Resolve the root object
                 let root = window;
@@ -190,12 +1019,109 @@
                     writable: true,
                     configurable: true
                 });
+            },
 
-                objectRegistry[id] = proxy;
+            /**
+             * Apply store commits (called by Java)
+             * @param {string} name - The store name
+             * @param {Array} commits - [fromVersion, toVersion, ops] in order
+             */
+            applyStoreCommits(name, commits) {
+                const entry = getStore(name);
+                for (const [from, to, ops] of commits) {
+                    if (entry.syncing || to <= entry.version) continue; // covered by a snapshot
+                    if (from !== entry.version) {
+                        // Missed a commit: start over from a snapshot
+                        if (LOG_LEVEL >= DEBUG) console.log('[Bridge] Store', name, 'at version', entry.version, 'got commit from', from, ', resyncing');
+                        entry.syncing = true;
+                        Bridge.__internal.sendMessageToJava('STORE_SYNC', { store: name });
+                        return;
+                    }
+                    let state = entry.state;
+                    const changedPaths = [];
+                    for (const op of ops) {
+                        state = setIn(state, splitPath(op[1]), 0, op[2], op[0] === 'd');
+                        changedPaths.push(op[1]);
+                    }
+                    entry.state = state;
+                    entry.version = to;
+                    entry.notify(changedPaths);
+                }
+            },
+
+            /**
+             * Replace the state of stores with snapshots (called by Java)
+             * @param {Object} snapshots - name -> [version, state]
+             */
+            initStores(snapshots) {
+                for (const name in snapshots) {
+                    const entry = getStore(name);
+                    const [version, state] = snapshots[name];
+                    if (version < entry.version && !entry.syncing) continue;
+                    entry.state = state;
+                    entry.version = version;
+                    entry.syncing = false;
+                    entry.notify(null);
+                }
+            },
+
+            /**
+             * Apply DOM patches of a view rendered by Java (called by Java)
+             * @param {string} rootId - The RenderRoot id
+             * @param {string} selector - CSS selector of the container
+             * @param {Array} ops - Operations, see RenderRoot
+             */
+            applyDomPatches(rootId, selector, ops) {
+                let root = domRoots[rootId];
+                for (const op of ops) {
+                    if (op[0] === 'x') {
+                        // (Re)start from an empty container
+                        const container = document.querySelector(selector);
+                        if (!container) {
+                            if (LOG_LEVEL >= ERROR) console.error('[Bridge] No element matches', selector);
+                            delete domRoots[rootId];
+                            return;
+                        }
+                        container.textContent = '';
+                        root = domRoots[rootId] = { id: rootId, nodes: new Map([[0, container]]), listeners: new Map() };
+                        continue;
+                    }
+                    if (!root) return; // patches for a view this page never rendered
+                    try {
+                        applyDomOp(root, op);
+                    } catch (error) {
+                        if (LOG_LEVEL >= ERROR) console.error('[Bridge] Failed to apply DOM patch', op, error);
+                    }
+                }
+            },
+
+            /**
+             * Apply the in-flight call limits (called by Java)
+             */
+            setCallLimits(limits) {
+                Object.assign(callLimits, limits);
+                startWaitingCalls();
+                // A lowered queue limit rejects the calls waiting beyond it
+                for (const call of waitingCalls.splice(callLimits.queued)) {
+                    call.reject(overloadError('Too many bridge calls queued'));
+                }
+            },
+
+            /**
+             * Register the schema of an object type (called by Java)
+             */
+            defineType(key, functions, properties, subObjects) {
+                objectTypes[key] = { functions, properties, subObjects };
             },
 
             async get(id, property) {
-                return await Bridge.__internal.sendMessageToJava('GET', { id, property });
+                if (propertyFetches++ === 0) loadMarks['firstSync.start'] = performance.now();
+                const value = await Bridge.__internal.sendMessageToJava('GET', { id, property });
+                if (loadMarks.firstSync === undefined) {
+                    loadMarks.firstSync = performance.now();
+                    if (loadMarks.load !== undefined) reportTimeline();
+                }
+                return cacheValue(id, property, decodeColumns(value));
             },
 
             async set(id, property, newValue) {
@@ -206,12 +1132,39 @@
                 });
             },
 
-            async invoke(id, func, arguments) {
-                return await Bridge.__internal.sendMessageToJava('INVOKE', {
-                    id,
-                    function: func,
-                    arguments
+            async invoke(id, func, args, priority) {
+                // Functions become handles; Java releases them when the call completes
+                const handles = [];
+                const jsonArgs = args.map(arg => {
+                    if (typeof arg !== 'function') return arg;
+                    const handle = nextCallbackHandle++;
+                    callbacks.set(handle, arg);
+                    handles.push(handle);
+                    return { __bridgeCallback: handle };
                 });
+                const message = { id, function: func, arguments: jsonArgs };
+                if (priority) message.priority = priority;
+                try {
+                    if (priority === 'background') {
+                        return await new Promise((resolve, reject) => {
+                            backgroundCalls.push(() => sendInvoke(message).then(resolve, reject));
+                            scheduleBackground();
+                        });
+                    }
+                    if (priority === 'interactive') interactiveInFlight++;
+                    try {
+                        return await sendInvoke(message);
+                    } finally {
+                        if (priority === 'interactive') {
+                            interactiveInFlight--;
+                            scheduleBackground();
+                        }
+                    }
+                } finally {
+                    for (const handle of handles) {
+                        callbacks.delete(handle);
+                    }
+                }
             }
         }
     };
@@ -232,5 +1185,58 @@
         configurable: false
     });
 
-    console.log('[Bridge] Initialized with event system and property cache sync');
+    // New page: replace the subscriptions Java remembers from the previous one,
+    // Java buffers emits until READY
+    function signalLoading() {
+        return Bridge.__internal.sendMessageToJava('LOADING', { generation, events: Object.keys(eventListeners) })
+            .then(limits => { if (limits) Bridge.__internal.setCallLimits(limits); });
+    }
+    signalLoading();
+
+    // Sent once after load, waiting (up to 2s) for the first property sync if one started
+    function reportTimeline() {
+        if (timelineReported) return;
+        timelineReported = true;
+        const navigation = performance.getEntriesByType ? performance.getEntriesByType('navigation')[0] : null;
+        if (navigation) {
+            if (navigation.responseEnd > 0) loadMarks.responseEnd = navigation.responseEnd;
+            if (navigation.domInteractive > 0) loadMarks.domInteractive = navigation.domInteractive;
+        }
+        Bridge.__internal.sendMessageToJava('TIMELINE', { generation, origin: performance.timeOrigin, marks: loadMarks, propertyFetches });
+    }
+    window.addEventListener('load', () => {
+        loadMarks.load = performance.now();
+        // Let load handlers start their first GET
+        setTimeout(() => {
+            if (loadMarks['firstSync.start'] !== undefined && loadMarks.firstSync === undefined) {
+                setTimeout(reportTimeline, 2000);
+            } else {
+                reportTimeline();
+            }
+        }, 0);
+    }, { once: true });
+
+    // Ready once the page's own scripts ran and registered their listeners
+    function signalReady() {
+        if (loadMarks.domContentLoaded === undefined) loadMarks.domContentLoaded = performance.now();
+        pageShown = true;
+        Bridge.__internal.sendMessageToJava('READY', { generation, events: Object.keys(eventListeners) });
+    }
+    if (document.readyState === 'loading') {
+        document.addEventListener('DOMContentLoaded', signalReady, { once: true });
+    } else {
+        signalReady();
+    }
+    window.addEventListener('pagehide', () => {
+        pageShown = false;
+        Bridge.__internal.sendMessageToJava('UNLOAD', { generation });
+    });
+    window.addEventListener('pageshow', (event) => {
+        // Restored from the back/forward cache: Java moved on to other pages since,
+        // so this one loads again as far as Java is concerned
+        if (event.persisted) signalLoading().then(signalReady, signalReady);
+    });
+
+    loadMarks['runtime.parsed'] = performance.now();
+    if (LOG_LEVEL >= INFO) console.log('[Bridge] Initialized with event system and property cache sync');
 })();
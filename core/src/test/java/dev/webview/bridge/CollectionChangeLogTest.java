@@ -0,0 +1,86 @@
+package dev.webview.bridge;
+
+import dev.webview.Webview;
+import dev.webview.traffic.HeadlessWebviewNative;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Operations an {@link ObservableList} records per exposed target. The
+ * webview's event loop never runs, scheduled flushes just stay queued.
+ */
+class CollectionChangeLogTest {
+    private WebviewBridge bridge;
+    private ObservableList<String> list;
+
+    @BeforeEach
+    void start() {
+        bridge = new WebviewBridge(new Webview(false, new HeadlessWebviewNative()));
+        list = new ObservableList<>(List.of("a", "b"));
+    }
+
+    @Test
+    void drainReturnsTheOperationsInOrder() {
+        CollectionChangeLog.Target target = list.changes().attach(bridge, "id", "items");
+        long base = list.changes().version();
+
+        list.add("c");
+        list.set(0, "A");
+        list.move(2, 0);
+        list.remove(1);
+        list.clear();
+
+        CollectionChangeLog.Patch patch = list.changes().drain(target);
+        assertEquals(base, patch.from);
+        assertEquals(base + 5, patch.to);
+        assertEquals(List.of("[\"i\",2,\"c\"]", "[\"s\",0,\"A\"]", "[\"m\",2,0]", "[\"r\",1,1]", "[\"c\"]"), patch.ops);
+
+        assertNull(list.changes().drain(target));
+        list.setAll(List.of("x"));
+        patch = list.changes().drain(target);
+        assertEquals(base + 5, patch.from);
+        assertEquals(List.of("[\"a\",[\"x\"]]"), patch.ops);
+    }
+
+    @Test
+    void targetsAreIndependent() {
+        CollectionChangeLog.Target first = list.changes().attach(bridge, "id", "items");
+        list.add("c");
+        CollectionChangeLog.Target second = list.changes().attach(bridge, "other", "items");
+        list.add("d");
+
+        assertSame(first, list.changes().attach(bridge, "id", "items"));
+        assertEquals(2, list.changes().drain(first).ops.size());
+        CollectionChangeLog.Patch patch = list.changes().drain(second);
+        assertEquals(List.of("[\"i\",3,\"d\"]"), patch.ops);
+        assertEquals(patch.to - 1, patch.from);
+    }
+
+    @Test
+    void tooManyOperationsAskForARefetch() {
+        CollectionChangeLog.Target target = list.changes().attach(bridge, "id", "items");
+        for (int i = 0; i <= CollectionChangeLog.MAX_PENDING_OPS; i++) list.add("x");
+
+        CollectionChangeLog.Patch patch = list.changes().drain(target);
+        assertNull(patch.ops);
+        assertEquals(list.changes().version(), patch.to);
+
+        list.remove(0);
+        assertEquals(List.of("[\"r\",0,1]"), list.changes().drain(target).ops);
+    }
+
+    @Test
+    void detachedTargetsRecordNothing() {
+        CollectionChangeLog.Target target = list.changes().attach(bridge, "id", "items");
+        list.changes().detach(target);
+        list.add("c");
+
+        assertNull(list.changes().drain(target));
+    }
+}
@@ -0,0 +1,298 @@
+package dev.webview.bridge;
+
+import dev.webview.Webview;
+import dev.webview.traffic.HeadlessWebviewNative;
+import dev.webview.traffic.TrafficListener;
+import org.json.JSONArray;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Diffs of a {@link RenderRoot}, read from the patches it evaluates in a
+ * headless webview.
+ */
+class RenderRootTest {
+    private HeadlessWebviewNative headless;
+    private Webview webview;
+    private Thread loop;
+    private final List<String> scripts = new ArrayList<>();
+
+    private WebviewBridge bridge;
+    private VNode view;
+    private RenderRoot root;
+
+    @BeforeEach
+    void start() throws Exception {
+        headless = new HeadlessWebviewNative();
+        webview = new Webview(false, headless);
+        bridge = new WebviewBridge(webview);
+        webview.setTrafficListener(new TrafficListener() {
+            @Override
+            public void onCall(String name, String seq, String request) {
+            }
+
+            @Override
+            public void onReturn(String seq, boolean success, String result) {
+            }
+
+            @Override
+            public void onEval(String script) {
+                synchronized (scripts) {
+                    scripts.add(script);
+                }
+            }
+        });
+        loop = new Thread(webview::run);
+        loop.start();
+
+        onLoop(() -> {
+            headless.call("__bridgeInternal", "1", "[\"LOADING\",{\"generation\":\"g1\",\"events\":[]}]");
+            headless.call("__bridgeInternal", "2", "[\"READY\",{\"generation\":\"g1\",\"events\":[]}]");
+        });
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        webview.terminate();
+        loop.join();
+    }
+
+    @Test
+    void firstRenderClearsAndInsertsTheTree() throws Exception {
+        JSONArray ops = render(list("a", "b"));
+
+        assertEquals(2, ops.length());
+        assertEquals("x", ops.getJSONArray(0).getString(0));
+        JSONArray insert = ops.getJSONArray(1);
+        assertEquals("i", insert.getString(0));
+        assertEquals(0, insert.getInt(1));
+        assertTrue(insert.isNull(2));
+        assertEquals("ul", insert.getJSONArray(3).getString(1));
+        assertEquals(2, insert.getJSONArray(3).getJSONArray(4).length());
+    }
+
+    @Test
+    void reorderMovesOnlyTheNodesOutsideTheLongestRun() throws Exception {
+        Map<String, Integer> ids = idsOf(render(list("a", "b", "c", "d")));
+
+        JSONArray ops = render(list("d", "a", "b", "c"));
+
+        assertEquals(1, ops.length());
+        assertOp(ops.getJSONArray(0), "m", ids.get("ul"), ids.get("d"), ids.get("a"));
+    }
+
+    @Test
+    void reversedListKeepsOneNodeInPlace() throws Exception {
+        Map<String, Integer> ids = idsOf(render(list("a", "b", "c")));
+
+        JSONArray ops = render(list("c", "b", "a"));
+
+        assertEquals(2, ops.length());
+        assertOp(ops.getJSONArray(0), "m", ids.get("ul"), ids.get("b"), ids.get("a"));
+        assertOp(ops.getJSONArray(1), "m", ids.get("ul"), ids.get("c"), ids.get("b"));
+    }
+
+    @Test
+    void insertGoesBeforeTheNextSibling() throws Exception {
+        Map<String, Integer> ids = idsOf(render(list("a", "c")));
+
+        JSONArray ops = render(list("a", "b", "c"));
+
+        assertEquals(1, ops.length());
+        JSONArray insert = ops.getJSONArray(0);
+        assertEquals("i", insert.getString(0));
+        assertEquals((int) ids.get("ul"), insert.getInt(1));
+        assertEquals((int) ids.get("c"), insert.getInt(2));
+        assertEquals("b", insert.getJSONArray(3).getJSONObject(2).getString("id"));
+    }
+
+    @Test
+    void appendHasNoSibling() throws Exception {
+        render(list("a"));
+
+        JSONArray ops = render(list("a", "b"));
+
+        assertEquals(1, ops.length());
+        assertEquals("i", ops.getJSONArray(0).getString(0));
+        assertTrue(ops.getJSONArray(0).isNull(2));
+    }
+
+    @Test
+    void removeSendsOnlyTheRemovedNode() throws Exception {
+        Map<String, Integer> ids = idsOf(render(list("a", "b", "c")));
+
+        JSONArray ops = render(list("a", "c"));
+
+        assertEquals(1, ops.length());
+        assertOp(ops.getJSONArray(0), "r", ids.get("b"));
+    }
+
+    @Test
+    void tagChangeReplacesTheChild() throws Exception {
+        Map<String, Integer> ids = idsOf(render(VNode.element("div").attr("id", "div").children(
+            VNode.element("p").attr("id", "p"), VNode.element("hr").attr("id", "hr"))));
+
+        JSONArray ops = render(VNode.element("div").attr("id", "div").children(
+            VNode.element("h1").attr("id", "h1"), VNode.element("hr").attr("id", "hr")));
+
+        assertEquals(2, ops.length());
+        assertOp(ops.getJSONArray(0), "r", ids.get("p"));
+        JSONArray insert = ops.getJSONArray(1);
+        assertEquals("i", insert.getString(0));
+        assertEquals((int) ids.get("div"), insert.getInt(1));
+        assertEquals((int) ids.get("hr"), insert.getInt(2));
+        assertEquals("h1", insert.getJSONArray(3).getString(1));
+    }
+
+    @Test
+    void tagChangeReplacesTheRoot() throws Exception {
+        Map<String, Integer> ids = idsOf(render(VNode.element("p").attr("id", "p")));
+
+        JSONArray ops = render(VNode.element("section"));
+
+        assertEquals(2, ops.length());
+        JSONArray insert = ops.getJSONArray(0);
+        assertEquals("i", insert.getString(0));
+        assertEquals(0, insert.getInt(1));
+        assertEquals((int) ids.get("p"), insert.getInt(2));
+        assertEquals("section", insert.getJSONArray(3).getString(1));
+        assertOp(ops.getJSONArray(1), "r", ids.get("p"));
+    }
+
+    @Test
+    void keyChangeReplacesTheNode() throws Exception {
+        Map<String, Integer> ids = idsOf(render(VNode.element("ul").attr("id", "ul").child(
+            VNode.element("li").key("a").attr("id", "a"))));
+
+        JSONArray ops = render(VNode.element("ul").attr("id", "ul").child(
+            VNode.element("li").key("b").attr("id", "b")));
+
+        assertEquals(2, ops.length());
+        assertOp(ops.getJSONArray(0), "r", ids.get("a"));
+        assertEquals("i", ops.getJSONArray(1).getString(0));
+        assertEquals("b", ops.getJSONArray(1).getJSONArray(3).getJSONObject(2).getString("id"));
+    }
+
+    @Test
+    void textBecomingAnElementReplacesTheNode() throws Exception {
+        render(VNode.element("div").addText("loading"));
+
+        JSONArray ops = render(VNode.element("div").child(VNode.element("b")));
+
+        assertEquals(2, ops.length());
+        assertEquals("r", ops.getJSONArray(0).getString(0));
+        assertEquals("i", ops.getJSONArray(1).getString(0));
+        assertEquals("b", ops.getJSONArray(1).getJSONArray(3).getString(1));
+    }
+
+    @Test
+    void changedTextAndAttributesArePatchedInPlace() throws Exception {
+        Map<String, Integer> ids = idsOf(render(VNode.element("p").attr("id", "p").attr("title", "old").addText("one")));
+
+        JSONArray ops = render(VNode.element("p").attr("id", "p").attr("class", "new").addText("two"));
+
+        assertEquals(3, ops.length());
+        assertOp(ops.getJSONArray(0), "a", ids.get("p"), "title", null);
+        assertOp(ops.getJSONArray(1), "a", ids.get("p"), "class", "new");
+        assertEquals("t", ops.getJSONArray(2).getString(0));
+        assertEquals("two", ops.getJSONArray(2).getString(2));
+    }
+
+    @Test
+    void unchangedTreeSendsNothing() throws Exception {
+        render(list("a", "b"));
+
+        assertEquals(0, render(list("a", "b")).length());
+    }
+
+    // Helpers
+
+    private static VNode list(String... keys) {
+        VNode ul = VNode.element("ul").attr("id", "ul");
+        for (String key : keys) {
+            ul.child(VNode.element("li").key(key).attr("id", key).addText(key));
+        }
+        return ul;
+    }
+
+    /**
+     * Renders the given tree and returns the patch operations sent, empty if none.
+     */
+    private JSONArray render(VNode next) throws Exception {
+        int sent;
+        synchronized (scripts) {
+            sent = scripts.size();
+        }
+        view = next;
+        if (root == null) {
+            root = bridge.mount("#app", () -> view);
+        } else {
+            root.invalidate();
+        }
+        onLoop(() -> { });
+
+        JSONArray ops = new JSONArray();
+        synchronized (scripts) {
+            for (String script : scripts.subList(sent, scripts.size())) {
+                int start = script.indexOf("applyDomPatches(");
+                if (start < 0) continue;
+                JSONArray args = new JSONArray("[" + script.substring(start + 16, script.lastIndexOf(");")) + "]");
+                JSONArray patch = args.getJSONArray(2);
+                for (int i = 0; i < patch.length(); i++) ops.put(patch.get(i));
+            }
+        }
+        return ops;
+    }
+
+    /**
+     * Collects the node ids of the inserted elements by their "id" attribute.
+     */
+    private static Map<String, Integer> idsOf(JSONArray ops) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < ops.length(); i++) {
+            JSONArray op = ops.getJSONArray(i);
+            if (op.getString(0).equals("i")) collectIds(op.getJSONArray(3), ids);
+        }
+        return ids;
+    }
+
+    private static void collectIds(JSONArray spec, Map<String, Integer> ids) {
+        if (spec.getString(1).equals("#text")) return;
+        String id = spec.getJSONObject(2).optString("id", null);
+        if (id != null) ids.put(id, spec.getInt(0));
+        JSONArray children = spec.getJSONArray(4);
+        for (int i = 0; i < children.length(); i++) collectIds(children.getJSONArray(i), ids);
+    }
+
+    private static void assertOp(JSONArray op, String type, Object... args) {
+        assertEquals(type, op.getString(0), op.toString());
+        assertEquals(args.length + 1, op.length(), op.toString());
+        for (int i = 0; i < args.length; i++) {
+            Object actual = op.isNull(i + 1) ? null : op.get(i + 1);
+            assertEquals(args[i], actual, op.toString());
+        }
+    }
+
+    private void onLoop(Runnable task) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        headless.post(() -> {
+            try {
+                task.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS), "event loop stuck");
+    }
+}
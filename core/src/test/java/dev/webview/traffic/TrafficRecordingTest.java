@@ -0,0 +1,139 @@
+package dev.webview.traffic;
+
+import dev.webview.Webview;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TrafficRecorder} logs read back by {@link TrafficRecording}.
+ */
+class TrafficRecordingTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyKindOfRecordRoundTrips() throws IOException {
+        Path log = dir.resolve("traffic.bin");
+        long before = System.currentTimeMillis();
+        try (TrafficRecorder recorder = new TrafficRecorder(log)) {
+            recorder.onObject("App", "11111111-2222-3333-4444-555555555555");
+            recorder.onCall("__bridgeInternal", "7", "[\"GET\",{\"property\":\"héllo ✓ 😀\"}]");
+            recorder.onReturn("7", true, "42");
+            recorder.onReturn("8", false, null);
+            recorder.onEval("emit(\"\")");
+            recorder.onEval("");
+        }
+
+        TrafficRecording recording = TrafficRecording.read(log);
+        assertTrue(recording.getStartMillis() >= before);
+        List<TrafficRecording.Entry> entries = recording.getEntries();
+        assertEquals(6, entries.size());
+
+        assertEntry(entries.get(0), TrafficRecording.Kind.OBJECT, "App", null, "11111111-2222-3333-4444-555555555555", true);
+        assertEntry(entries.get(1), TrafficRecording.Kind.CALL, "__bridgeInternal", "7",
+            "[\"GET\",{\"property\":\"héllo ✓ 😀\"}]", true);
+        assertEntry(entries.get(2), TrafficRecording.Kind.RETURN, null, "7", "42", true);
+        assertEntry(entries.get(3), TrafficRecording.Kind.RETURN, null, "8", null, false);
+        assertEntry(entries.get(4), TrafficRecording.Kind.EVAL, null, null, "emit(\"\")", true);
+        assertEntry(entries.get(5), TrafficRecording.Kind.EVAL, null, null, "", true);
+
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i).getTimeNanos() >= entries.get(i - 1).getTimeNanos());
+        }
+    }
+
+    @Test
+    void recordsSpanningSeveralRegions() throws IOException {
+        // Larger than one mapped region of the recorder
+        String script = "x".repeat(5 * 1024 * 1024);
+        Path log = dir.resolve("large.bin");
+        try (TrafficRecorder recorder = new TrafficRecorder(log)) {
+            for (int i = 0; i < 5; i++) recorder.onEval(script + i);
+        }
+
+        List<TrafficRecording.Entry> entries = TrafficRecording.read(log).getEntries();
+        assertEquals(5, entries.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(script + i, entries.get(i).getPayload());
+        }
+    }
+
+    @Test
+    void recordsTheTrafficOfAHeadlessWebview() throws Exception {
+        Path log = dir.resolve("headless.bin");
+        HeadlessWebviewNative headless = new HeadlessWebviewNative();
+        Webview webview = new Webview(false, headless);
+        TrafficRecorder recorder = TrafficRecorder.attach(webview, log);
+        webview.bind("echo", request -> {
+            webview.eval("received(" + request + ")");
+            return request;
+        });
+        Thread loop = new Thread(webview::run);
+        loop.start();
+
+        CountDownLatch done = new CountDownLatch(1);
+        headless.post(() -> {
+            headless.call("echo", "1", "[1,\"two\"]");
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        webview.terminate();
+        loop.join();
+        recorder.close();
+        assertNull(webview.getTrafficListener());
+
+        List<TrafficRecording.Entry> entries = TrafficRecording.read(log).getEntries();
+        assertEquals(3, entries.size());
+        assertEntry(entries.get(0), TrafficRecording.Kind.CALL, "echo", "1", "[1,\"two\"]", true);
+        assertEntry(entries.get(1), TrafficRecording.Kind.EVAL, null, null, "received([1,\"two\"])", true);
+        assertEntry(entries.get(2), TrafficRecording.Kind.RETURN, null, "1", "[1,\"two\"]", true);
+    }
+
+    @Test
+    void closedRecorderWritesNothing() throws IOException {
+        Path log = dir.resolve("closed.bin");
+        TrafficRecorder recorder = new TrafficRecorder(log);
+        recorder.onEval("before");
+        recorder.close();
+        recorder.onEval("after");
+        recorder.close();
+
+        List<TrafficRecording.Entry> entries = TrafficRecording.read(log).getEntries();
+        assertEquals(1, entries.size());
+        assertEquals("before", entries.get(0).getPayload());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.writeString(file, "definitely not a traffic log");
+
+        assertThrows(IOException.class, () -> TrafficRecording.read(file));
+    }
+
+    private static void assertEntry(TrafficRecording.Entry entry, TrafficRecording.Kind kind, String name,
+                                    String seq, String payload, boolean success) {
+        assertEquals(kind, entry.getKind());
+        assertEquals(name, entry.getName());
+        assertEquals(seq, entry.getSeq());
+        assertEquals(payload, entry.getPayload());
+        if (success) {
+            assertTrue(entry.isSuccess());
+        } else {
+            assertFalse(entry.isSuccess());
+        }
+    }
+}
@@ -9,12 +9,74 @@ java {
 
 dependencies {
     implementation(project(":core"))
+    annotationProcessor(project(":processor"))
 }
 
 application {
     mainClass.set("dev.webview.examples.BridgeExample")
 }
 
+// Builds a GraalVM native executable of HelloWorld into build/native (needs GRAALVM_HOME).
+// The webview library of the build platform is embedded by default; with
+// -PembedNatives=false it is left out and loaded at runtime from next to the
+// executable or from -Ddev.webview.library.path.
+val nativeImage by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Builds a native image of the HelloWorld example"
+
+    val runtimeClasspath = sourceSets.main.get().runtimeClasspath
+    val embedNatives = (findProperty("embedNatives") ?: "true").toString().toBoolean()
+    val outputFile = layout.buildDirectory.file("native/hello-world")
+    inputs.files(runtimeClasspath)
+    inputs.property("embedNatives", embedNatives)
+    outputs.file(outputFile)
+
+    val graalHome = System.getenv("GRAALVM_HOME") ?: System.getenv("JAVA_HOME") ?: ""
+    executable = "$graalHome/bin/native-image"
+    argumentProviders.add(CommandLineArgumentProvider {
+        val args = mutableListOf(
+            "-cp", runtimeClasspath.asPath,
+            "--no-fallback",
+            "-o", outputFile.get().asFile.path
+        )
+        if (embedNatives) {
+            val os = System.getProperty("os.name").lowercase()
+            val arch = System.getProperty("os.arch").lowercase()
+            val platform = when {
+                os.contains("mac") && (arch.contains("aarch64") || arch.contains("arm")) -> "aarch64-macos"
+                os.contains("mac") -> "x86_64-macos"
+                os.contains("win") -> "x86_64-windows"
+                else -> "x86_64-linux"
+            }
+            args.add("-H:IncludeResources=dev/webview/natives/$platform/.*")
+        }
+        args.add("dev.webview.examples.HelloWorld")
+        args
+    })
+    doFirst { outputFile.get().asFile.parentFile.mkdirs() }
+}
+
+// Eval throughput for 1KB/100KB/5MB scripts, String vs pre-encoded (opens a window)
+val evalBenchmark by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Measures Webview.eval throughput for String, byte[] and NativeScript scripts"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("dev.webview.examples.EvalBenchmark")
+}
+
+// Replays a traffic log recorded with -Dbridge.record=<file> against BridgeExample's
+// objects without a window: ./gradlew :examples:replay -Plog=<file> [-Pspeed=1]
+val replay by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Replays recorded bridge traffic headlessly and reports latencies"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("dev.webview.examples.ReplayExample")
+    args(
+        findProperty("log")?.toString() ?: "bridge-traffic.bin",
+        findProperty("speed")?.toString() ?: "0"
+    )
+}
+
 // Never publish the examples module
 tasks.withType<PublishToMavenRepository>().configureEach {
     enabled = false
@@ -0,0 +1,34 @@
+#!/bin/bash
+# Native image smoke test
+# Builds the HelloWorld example as a GraalVM native image, starts it once and
+# reports the time until the first page load and the peak RSS.
+#
+# Usage:
+#   GRAALVM_HOME=/path/to/graalvm ./examples/native-image-smoke.sh [-PembedNatives=false]
+#
+# On headless Linux run it under xvfb-run.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+./gradlew :examples:nativeImage --no-daemon "$@"
+
+BINARY=examples/build/native/hello-world
+if [ ! -x "$BINARY" ]; then
+    echo "Native image not found at $BINARY"
+    exit 1
+fi
+echo "Image size: $(du -h "$BINARY" | cut -f1)"
+
+TIME_OUTPUT=$(mktemp)
+trap 'rm -f "$TIME_OUTPUT"' EXIT
+
+if [ "$(uname)" = "Darwin" ]; then
+    /usr/bin/time -l "$BINARY" --smoke 2> "$TIME_OUTPUT" | grep "startup:"
+    RSS_BYTES=$(grep "maximum resident set size" "$TIME_OUTPUT" | awk '{print $1}')
+    echo "Peak RSS: $((RSS_BYTES / 1024)) KB"
+else
+    /usr/bin/time -v "$BINARY" --smoke 2> "$TIME_OUTPUT" | grep "startup:"
+    RSS_KB=$(grep "Maximum resident set size" "$TIME_OUTPUT" | awk '{print $NF}')
+    echo "Peak RSS: ${RSS_KB} KB"
+fi
@@ -5,7 +5,9 @@ import dev.webview.bridge.JavascriptFunction;
 import dev.webview.bridge.JavascriptObject;
 import dev.webview.bridge.JavascriptValue;
 import dev.webview.bridge.WebviewBridge;
+import dev.webview.traffic.TrafficRecorder;
 
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,6 +21,9 @@ public class BridgeExample {
 
     public static void main(String[] args) {
         try (Webview wv = new Webview(true)) {
+            // -Dbridge.record=<file> captures the bridge traffic for ReplayExample
+            String recordTo = System.getProperty("bridge.record");
+            TrafficRecorder recorder = recordTo != null ? TrafficRecorder.attach(wv, Paths.get(recordTo)) : null;
             WebviewBridge bridge = new WebviewBridge(wv);
 
             wv.setTitle("Bridge Example - Events Demo");
@@ -177,6 +182,7 @@ public class BridgeExample {
 
             wv.setHtml(html);
             wv.run();
+            if (recorder != null) recorder.close();
         } catch (Exception e) {
             e.printStackTrace();
         }
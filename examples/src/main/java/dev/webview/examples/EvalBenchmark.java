@@ -0,0 +1,114 @@
+package dev.webview.examples;
+
+import dev.webview.NativeScript;
+import dev.webview.Webview;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures eval throughput for 1KB, 100KB and 5MB scripts, passed as String
+ * (pooled native buffer above 8KB), as pre-encoded byte[] and as NativeScript.
+ *
+ * "call" is the time spent in eval() on the Java side (encoding + copy handed
+ * to the native library); "total" also waits until the page ran every script.
+ *
+ * Run with {@code ./gradlew :examples:evalBenchmark}.
+ */
+public class EvalBenchmark {
+    private static final int[] SIZES = {1024, 100 * 1024, 5 * 1024 * 1024};
+    private static final int[] ITERATIONS = {2000, 200, 10};
+    private static final int WARMUP_ROUNDS = 2;
+
+    private final Webview webview;
+    private final List<Runnable> cases = new ArrayList<>();
+    private int nextCase = 0;
+    private Runnable onPageDone;
+
+    private EvalBenchmark(Webview webview) {
+        this.webview = webview;
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (Webview webview = new Webview(false)) {
+            webview.setTitle("Eval benchmark");
+            webview.setSize(400, 200, Webview.HINT_NONE);
+
+            EvalBenchmark benchmark = new EvalBenchmark(webview);
+            benchmark.prepare();
+            webview.bind("__benchDone", req -> {
+                // Reached once the page evaluated everything queued before this call
+                webview.dispatch(benchmark.onPageDone);
+                return null;
+            });
+            webview.bind("__benchReady", req -> {
+                webview.dispatch(benchmark::runNextCase);
+                return null;
+            });
+            webview.init("window.addEventListener('load', () => window.__benchReady());");
+            webview.setHtml("<!DOCTYPE html><html><body>Running eval benchmark...</body></html>");
+            webview.run();
+        }
+    }
+
+    private void prepare() {
+        System.out.printf("%-8s %-12s %8s %12s %12s %12s%n", "size", "variant", "evals", "call MB/s", "total MB/s", "evals/s");
+        for (int i = 0; i < SIZES.length; i++) {
+            String script = script(SIZES[i]);
+            byte[] utf8 = script.getBytes(StandardCharsets.UTF_8);
+            NativeScript preEncoded = NativeScript.of(utf8);
+            int iterations = ITERATIONS[i];
+            String size = label(SIZES[i]);
+
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                boolean report = round == WARMUP_ROUNDS;
+                addCase(size, "String", iterations, utf8.length, report, () -> webview.eval(script));
+                addCase(size, "byte[]", iterations, utf8.length, report, () -> webview.eval(utf8));
+                addCase(size, "NativeScript", iterations, utf8.length, report, () -> webview.eval(preEncoded));
+            }
+        }
+        cases.add(webview::terminate);
+    }
+
+    private void addCase(String size, String variant, int iterations, int bytes, boolean report, Runnable eval) {
+        cases.add(() -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                eval.run();
+            }
+            long callNanos = System.nanoTime() - start;
+
+            onPageDone = () -> {
+                long totalNanos = System.nanoTime() - start;
+                if (report) {
+                    double megabytes = (double) bytes * iterations / (1024 * 1024);
+                    System.out.printf("%-8s %-12s %8d %12.1f %12.1f %12.0f%n", size, variant, iterations,
+                        megabytes / (callNanos / 1e9), megabytes / (totalNanos / 1e9), iterations / (totalNanos / 1e9));
+                }
+                runNextCase();
+            };
+            webview.eval("window.__benchDone()");
+        });
+    }
+
+    private void runNextCase() {
+        cases.get(nextCase++).run();
+    }
+
+    /**
+     * A script of exactly {@code bytes} UTF-8 bytes assigning a string literal.
+     */
+    private static String script(int bytes) {
+        String prefix = "window.__sink='";
+        String suffix = "';";
+        char[] payload = new char[bytes - prefix.length() - suffix.length()];
+        Arrays.fill(payload, 'x');
+        return prefix + new String(payload) + suffix;
+    }
+
+    private static String label(int bytes) {
+        return bytes >= 1024 * 1024 ? bytes / (1024 * 1024) + "MB" : bytes / 1024 + "KB";
+    }
+}
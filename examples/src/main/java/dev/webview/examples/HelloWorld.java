@@ -4,10 +4,14 @@ import dev.webview.Webview;
 
 /**
  * Simple "Hello, World!" example using JNA-based webview wrapper.
+ *
+ * Run with {@code --smoke} to print the time from process start to the first
+ * page load and exit (used by native-image-smoke.sh).
  */
 public class HelloWorld {
 
     public static void main(String[] args) {
+        boolean smoke = args.length > 0 && args[0].equals("--smoke");
         System.out.println("Creating webview window...");
 
         try (Webview webview = new Webview(true)) {
@@ -30,6 +34,18 @@ public class HelloWorld {
                     "</body>\n" +
                     "</html>";
 
+            if (smoke) {
+                webview.bind("__smokeLoaded", req -> {
+                    long startupMillis = ProcessHandle.current().info().startInstant()
+                        .map(start -> System.currentTimeMillis() - start.toEpochMilli())
+                        .orElse(-1L);
+                    System.out.println("startup: " + startupMillis + " ms");
+                    webview.terminate();
+                    return null;
+                });
+                webview.init("window.addEventListener('load', () => window.__smokeLoaded());");
+            }
+
             webview.setHtml(html);
 
             System.out.println("Window created. Running event loop...");
@@ -0,0 +1,33 @@
+package dev.webview.examples;
+
+import dev.webview.bridge.WebviewBridge;
+import dev.webview.traffic.TrafficRecording;
+import dev.webview.traffic.TrafficReplay;
+
+import java.nio.file.Paths;
+
+/**
+ * Replays bridge traffic recorded by BridgeExample (run with
+ * {@code -Dbridge.record=<file>}) against its objects on a headless webview,
+ * and prints the latency distribution per message type.
+ *
+ * Run with {@code ./gradlew :examples:replay -Plog=<file> [-Pspeed=1]};
+ * speed 0 replays as fast as possible.
+ */
+public class ReplayExample {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayExample <traffic log> [speed]");
+            System.exit(1);
+        }
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+
+        TrafficRecording recording = TrafficRecording.read(Paths.get(args[0]));
+        TrafficReplay.Report report = TrafficReplay.run(recording, speed, webview -> {
+            WebviewBridge bridge = new WebviewBridge(webview);
+            bridge.defineObject("App", new BridgeExample.AppObject(bridge));
+        });
+        System.out.print(report);
+    }
+}
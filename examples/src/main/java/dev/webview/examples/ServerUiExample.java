@@ -0,0 +1,82 @@
+package dev.webview.examples;
+
+import dev.webview.Webview;
+import dev.webview.bridge.VNode;
+import dev.webview.bridge.WebviewBridge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A todo list rendered entirely from Java: the page only contains an empty
+ * container, the bridge keeps it in sync with {@link #render()}.
+ */
+public class ServerUiExample {
+    private final List<Todo> todos = new ArrayList<>();
+    private String draft = "";
+    private int nextId = 1;
+
+    public static void main(String[] args) {
+        try (Webview webview = new Webview(true)) {
+            WebviewBridge bridge = new WebviewBridge(webview);
+            bridge.mount("#app", new ServerUiExample()::render);
+
+            webview.setTitle("Server-driven UI");
+            webview.setSize(480, 600, Webview.HINT_NONE);
+            webview.setHtml("<!DOCTYPE html>\n" +
+                "<html>\n" +
+                "<head>\n" +
+                "  <style>\n" +
+                "    body { font-family: Arial, sans-serif; margin: 24px; }\n" +
+                "    li.done span { text-decoration: line-through; color: #888; }\n" +
+                "  </style>\n" +
+                "</head>\n" +
+                "<body><div id=\"app\"></div></body>\n" +
+                "</html>");
+            webview.run();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    VNode render() {
+        VNode list = VNode.element("ul");
+        for (Todo todo : todos) {
+            list.child(VNode.element("li").key(todo.id).attr("class", todo.done ? "done" : null).children(
+                VNode.element("input").attr("type", "checkbox").attr("checked", todo.done)
+                    .on("change", e -> todo.done = e.isChecked()),
+                VNode.element("span").addText(" " + todo.title + " "),
+                VNode.element("button").addText("x").on("click", e -> todos.remove(todo))
+            ));
+        }
+
+        long open = todos.stream().filter(todo -> !todo.done).count();
+        return VNode.element("div").children(
+            VNode.element("h1").addText("Todos"),
+            VNode.element("form").on("submit", e -> add()).children(
+                VNode.element("input").attr("placeholder", "What needs to be done?").attr("value", draft)
+                    .on("input", e -> draft = e.getValue()),
+                VNode.element("button").addText("Add")
+            ),
+            list,
+            VNode.element("p").addText(open + " open")
+        );
+    }
+
+    private void add() {
+        if (draft.isBlank()) return;
+        todos.add(new Todo(nextId++, draft.trim()));
+        draft = "";
+    }
+
+    private static final class Todo {
+        final int id;
+        final String title;
+        boolean done;
+
+        Todo(int id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+    // Annotation types are read directly from core while processing
+    implementation(project(":core"))
+}
+
+publishing {
+    publications {
+        create<MavenPublication>("maven") {
+            from(components["java"])
+            groupId = project.group.toString()
+            artifactId = "processor"
+            version = project.version.toString()
+        }
+    }
+}
@@ -0,0 +1,614 @@
+package dev.webview.processor;
+
+import dev.webview.bridge.CallPriority;
+import dev.webview.bridge.JavascriptFunction;
+import dev.webview.bridge.JavascriptValue;
+import dev.webview.bridge.WritePolicy;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Generates a reflection-free {@code BridgeDispatcher} and TypeScript typings for
+ * every JavascriptObject subclass using @JavascriptFunction/@JavascriptValue.
+ *
+ * Dispatchers are registered in META-INF/services and picked up by JavascriptObject
+ * at runtime; the typings are written to META-INF/webview/typescript in the class
+ * output. Types with private members are skipped and keep using reflection; for
+ * those a native-image reflect-config.json is written so they still work in a
+ * GraalVM native image. The config also lists the records and POJOs used as
+ * function parameters, which ArgumentBinder constructs reflectively.
+ *
+ * Options:
+ * <pre>
+ *   -Awebview.typescriptDir=&lt;dir&gt;   also write the .d.ts files to this directory
+ * </pre>
+ */
+@SupportedAnnotationTypes({"dev.webview.bridge.JavascriptFunction", "dev.webview.bridge.JavascriptValue"})
+@SupportedOptions(BridgeProcessor.TYPESCRIPT_DIR_OPTION)
+public class BridgeProcessor extends AbstractProcessor {
+    static final String TYPESCRIPT_DIR_OPTION = "webview.typescriptDir";
+
+    private static final String JAVASCRIPT_OBJECT = "dev.webview.bridge.JavascriptObject";
+    private static final String SERVICE_FILE = "META-INF/services/dev.webview.bridge.BridgeDispatcher";
+    private static final String TYPESCRIPT_FOLDER = "META-INF/webview/typescript/";
+    private static final String REFLECT_CONFIG = "META-INF/native-image/webview-bridge/reflect-config.json";
+
+    private Elements elements;
+    private Types types;
+    private TypeMirror javascriptObject;
+    private final Set<String> seenTypes = new HashSet<>();
+    private final List<String> dispatchers = new ArrayList<>();
+    private final List<String> reflectiveTypes = new ArrayList<>();
+    private final Set<String> boundTypes = new LinkedHashSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (javascriptObject == null) {
+            TypeElement base = elements.getTypeElement(JAVASCRIPT_OBJECT);
+            if (base == null) return false; // core is not on the classpath
+            javascriptObject = base.asType();
+        }
+
+        Set<TypeElement> bridged = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getEnclosingElement() instanceof TypeElement) {
+                    bridged.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+
+        for (TypeElement type : bridged) {
+            if (seenTypes.add(type.getQualifiedName().toString())) {
+                generate(type);
+            }
+        }
+
+        if (roundEnv.processingOver() && !dispatchers.isEmpty()) {
+            writeServiceFile();
+        }
+        if (roundEnv.processingOver() && (!reflectiveTypes.isEmpty() || !boundTypes.isEmpty())) {
+            writeReflectConfig();
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || !isJavascriptObject(type.asType())) {
+            warn(type, type.getQualifiedName() + " does not extend JavascriptObject, its bridge annotations have no effect");
+            return;
+        }
+
+        List<VariableElement> subObjects = new ArrayList<>();
+        List<VariableElement> properties = new ArrayList<>();
+        List<ExecutableElement> functions = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) continue;
+
+            if (isJavascriptObject(field.asType())) {
+                subObjects.add(field);
+            } else if (field.getAnnotation(JavascriptValue.class) != null) {
+                properties.add(field);
+            }
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.STATIC)) continue;
+
+            if (method.getAnnotation(JavascriptFunction.class) != null) {
+                functions.add(method);
+                for (VariableElement parameter : method.getParameters()) {
+                    collectBoundTypes(parameter.asType());
+                }
+                collectBoundTypes(method.getReturnType());
+            }
+        }
+
+        try {
+            // Typings don't depend on member visibility, dispatchers do
+            writeTypescript(type, subObjects, properties, functions);
+
+            String inaccessible = findInaccessible(type);
+            if (inaccessible != null) {
+                note(type, "No bridge dispatcher generated for " + type.getQualifiedName() + ": " + inaccessible +
+                    " is not accessible, members will be scanned with reflection at runtime");
+                reflectiveTypes.add(elements.getBinaryName(type).toString());
+                return;
+            }
+            writeDispatcher(type, subObjects, properties, functions);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to generate bridge sources for " + type.getQualifiedName() + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * @return Description of the first type or member the generated class could not access, or null
+     */
+    private String findInaccessible(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) return "type " + t.getSimpleName();
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local type " + t.getSimpleName();
+            }
+        }
+        for (Element member : type.getEnclosedElements()) {
+            boolean bridgedMember = member.getAnnotation(JavascriptValue.class) != null
+                || member.getAnnotation(JavascriptFunction.class) != null
+                || (member.getKind() == ElementKind.FIELD && isJavascriptObject(member.asType()));
+            if (bridgedMember && !member.getModifiers().contains(Modifier.STATIC)
+                    && member.getModifiers().contains(Modifier.PRIVATE)) {
+                return "member " + member.getSimpleName();
+            }
+        }
+        return null;
+    }
+
+    private void writeDispatcher(TypeElement type, List<VariableElement> subObjects,
+                                 List<VariableElement> properties, List<ExecutableElement> functions) throws IOException {
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String dispatcherName = flatName(type) + "_BridgeDispatcher";
+        String qualifiedDispatcher = packageName.isEmpty() ? dispatcherName : packageName + "." + dispatcherName;
+        String typeName = types.erasure(type.asType()).toString();
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("import dev.webview.bridge.BridgeDispatcher;\n");
+        src.append("import dev.webview.bridge.ArgumentBinder;\n");
+        src.append("import dev.webview.bridge.BridgeMembers;\n");
+        src.append("import dev.webview.bridge.JavascriptObject;\n");
+        src.append("import dev.webview.bridge.WritePolicy;\n\n");
+        src.append("/**\n * Bridge dispatcher for {@link ").append(typeName).append("}.\n */\n");
+        src.append("@javax.annotation.processing.Generated(\"").append(BridgeProcessor.class.getName()).append("\")\n");
+        src.append("public final class ").append(dispatcherName).append(" implements BridgeDispatcher {\n");
+
+        for (int i = 0; i < properties.size(); i++) {
+            JavascriptValue annotation = properties.get(i).getAnnotation(JavascriptValue.class);
+            src.append("    private static final BridgeMembers.PropertyOptions OPTIONS_").append(i)
+                .append(" = new BridgeMembers.PropertyOptions(")
+                .append(annotation.allowGet()).append(", ")
+                .append(annotation.allowSet()).append(", ")
+                .append("WritePolicy.").append(annotation.writePolicy().name()).append(", ")
+                .append(annotation.writeInterval()).append(");\n");
+        }
+        if (!properties.isEmpty()) src.append('\n');
+
+        // Argument plans are built once per function and shared by all instances
+        for (int i = 0; i < functions.size(); i++) {
+            ExecutableElement method = functions.get(i);
+            StringJoiner parameterTypes = new StringJoiner(", ");
+            for (VariableElement parameter : method.getParameters()) {
+                parameterTypes.add(typeExpression(parameter.asType()));
+            }
+            src.append("    private static final ArgumentBinder ARGS_").append(i)
+                .append(" = ArgumentBinder.of(").append(method.isVarArgs());
+            if (parameterTypes.length() > 0) src.append(", ").append(parameterTypes);
+            src.append(");\n");
+        }
+        if (!functions.isEmpty()) src.append('\n');
+
+        src.append("    @Override\n");
+        src.append("    public Class<? extends JavascriptObject> type() {\n");
+        src.append("        return ").append(typeName).append(".class;\n");
+        src.append("    }\n\n");
+
+        src.append("    @Override\n");
+        src.append("    public String memberScript() {\n");
+        src.append("        return ").append(elements.getConstantExpression(memberScript(properties, functions))).append(";\n");
+        src.append("    }\n\n");
+
+        if (!subObjects.isEmpty()) {
+            src.append("    @Override\n");
+            src.append("    public java.util.Map<String, Class<? extends JavascriptObject>> subObjectTypes() {\n");
+            src.append("        java.util.Map<String, Class<? extends JavascriptObject>> types = new java.util.LinkedHashMap<>();\n");
+            for (VariableElement field : subObjects) {
+                src.append("        types.put(").append(elements.getConstantExpression(field.getSimpleName().toString()))
+                    .append(", ").append(types.erasure(field.asType())).append(".class);\n");
+            }
+            src.append("        return types;\n");
+            src.append("    }\n\n");
+        }
+
+        src.append("    @Override\n");
+        src.append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        src.append("    public void describe(JavascriptObject target, BridgeMembers members) {\n");
+        src.append("        ").append(typeName).append(" self = (").append(typeName).append(") target;\n");
+
+        for (int i = 0; i < properties.size(); i++) {
+            VariableElement field = properties.get(i);
+            String fieldName = field.getSimpleName().toString();
+            src.append("        members.property(").append(elements.getConstantExpression(propertyName(field)))
+                .append(", ").append(typeExpression(field.asType())).append(", OPTIONS_").append(i).append(",\n");
+            src.append("            () -> self.").append(fieldName).append(",\n");
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                src.append("            value -> { throw new UnsupportedOperationException(\"")
+                    .append(fieldName).append(" is final\"); });\n");
+            } else {
+                src.append("            value -> self.").append(fieldName)
+                    .append(" = (").append(boxedName(field.asType())).append(") value);\n");
+            }
+        }
+
+        for (int f = 0; f < functions.size(); f++) {
+            ExecutableElement method = functions.get(f);
+            StringJoiner args = new StringJoiner(", ");
+            List<? extends VariableElement> parameters = method.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                args.add(argument(parameters.get(i).asType(), i));
+            }
+            String call = "self." + method.getSimpleName() + "(" + args + ")";
+
+            src.append("        members.function(").append(elements.getConstantExpression(functionName(method)));
+            CallPriority priority = method.getAnnotation(JavascriptFunction.class).priority();
+            src.append(", dev.webview.bridge.CallPriority.").append(priority.name()).append(", ARGS_").append(f);
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                src.append(", args -> {\n");
+                src.append("            ").append(call).append(";\n");
+                src.append("            return null;\n");
+                src.append("        });\n");
+            } else {
+                src.append(", args -> ").append(call).append(");\n");
+            }
+        }
+
+        for (VariableElement field : subObjects) {
+            src.append("        members.subObject(").append(elements.getConstantExpression(field.getSimpleName().toString()))
+                .append(", () -> self.").append(field.getSimpleName()).append(");\n");
+        }
+
+        src.append("    }\n");
+        src.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedDispatcher, type).openWriter()) {
+            writer.write(src.toString());
+        }
+        dispatchers.add(qualifiedDispatcher);
+    }
+
+    /**
+     * Same format as JavascriptObject builds at runtime for reflectively scanned types.
+     */
+    private String memberScript(List<VariableElement> properties, List<ExecutableElement> functions) {
+        StringJoiner functionNames = new StringJoiner(",", "[", "]");
+        for (ExecutableElement method : functions) {
+            CallPriority priority = method.getAnnotation(JavascriptFunction.class).priority();
+            functionNames.add(priority == CallPriority.NORMAL
+                ? jsonString(functionName(method))
+                : "[" + jsonString(functionName(method)) + ",\"" + priority.name().toLowerCase(Locale.ROOT) + "\"]");
+        }
+        StringJoiner propertyDefs = new StringJoiner(",", "{", "}");
+        for (VariableElement field : properties) {
+            JavascriptValue annotation = field.getAnnotation(JavascriptValue.class);
+            String writePolicy = annotation.writePolicy() == WritePolicy.IMMEDIATE
+                ? "null"
+                : "{\"policy\":\"" + annotation.writePolicy().name().toLowerCase(Locale.ROOT) + "\",\"interval\":" + annotation.writeInterval() + "}";
+            propertyDefs.add(jsonString(propertyName(field)) + ":" + writePolicy);
+        }
+        return functionNames + ", " + propertyDefs;
+    }
+
+    private void writeTypescript(TypeElement type, List<VariableElement> subObjects,
+                                 List<VariableElement> properties, List<ExecutableElement> functions) throws IOException {
+        Set<TypeElement> imports = new LinkedHashSet<>();
+        StringBuilder body = new StringBuilder();
+
+        for (VariableElement field : properties) {
+            JavascriptValue annotation = field.getAnnotation(JavascriptValue.class);
+            body.append("    ");
+            if (!annotation.allowSet()) body.append("readonly ");
+            body.append(propertyName(field)).append(": ").append(tsType(field.asType(), imports)).append(";\n");
+        }
+        for (VariableElement field : subObjects) {
+            body.append("    readonly ").append(field.getSimpleName()).append(": ")
+                .append(tsType(field.asType(), imports)).append(";\n");
+        }
+        for (ExecutableElement method : functions) {
+            StringJoiner params = new StringJoiner(", ");
+            for (VariableElement param : method.getParameters()) {
+                params.add(param.getSimpleName() + ": " + tsType(param.asType(), imports));
+            }
+            String returnType = method.getReturnType().getKind() == TypeKind.VOID
+                ? "void"
+                : tsType(method.getReturnType(), imports);
+            body.append("    ").append(functionName(method)).append("(").append(params)
+                .append("): Promise<").append(returnType).append(">;\n");
+        }
+
+        StringBuilder ts = new StringBuilder();
+        ts.append("// Generated by webview_java from ").append(type.getQualifiedName()).append(". Do not edit.\n\n");
+        for (TypeElement imported : imports) {
+            if (imported.equals(type)) continue;
+            ts.append("import type { ").append(imported.getSimpleName()).append(" } from './")
+                .append(imported.getQualifiedName()).append("';\n");
+        }
+        if (imports.size() > (imports.contains(type) ? 1 : 0)) ts.append('\n');
+        ts.append("export interface ").append(type.getSimpleName()).append(" {\n");
+        ts.append(body);
+        ts.append("}\n");
+
+        String fileName = type.getQualifiedName() + ".d.ts";
+        FileObject resource = processingEnv.getFiler()
+            .createResource(StandardLocation.CLASS_OUTPUT, "", TYPESCRIPT_FOLDER + fileName, type);
+        try (Writer writer = resource.openWriter()) {
+            writer.write(ts.toString());
+        }
+
+        String typescriptDir = processingEnv.getOptions().get(TYPESCRIPT_DIR_OPTION);
+        if (typescriptDir != null && !typescriptDir.isEmpty()) {
+            Path dir = Paths.get(typescriptDir);
+            Files.createDirectories(dir);
+            Files.write(dir.resolve(fileName), ts.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String tsType(TypeMirror type, Set<TypeElement> imports) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "boolean";
+            case CHAR:
+                return "string";
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return "number";
+            case VOID:
+                return "void";
+            case ARRAY:
+                return tsElementType(((ArrayType) type).getComponentType(), imports) + "[]";
+            case DECLARED:
+                break;
+            default:
+                return "any";
+        }
+
+        DeclaredType declared = (DeclaredType) type;
+        TypeElement element = (TypeElement) declared.asElement();
+        String name = element.getQualifiedName().toString();
+        List<? extends TypeMirror> typeArgs = declared.getTypeArguments();
+
+        if (name.equals("java.lang.String") || name.equals("java.lang.Character")) return "string";
+        if (name.equals("java.lang.Boolean")) return "boolean";
+        if (isSubtype(type, "java.lang.Number")) return "number";
+        if (isJavascriptObject(type)) {
+            imports.add(element);
+            return element.getSimpleName().toString();
+        }
+        if (name.equals("dev.webview.bridge.JsCallback")) return "(...args: any[]) => void";
+        if (name.equals("java.util.function.Consumer")) {
+            return "(value: " + (typeArgs.size() == 1 ? tsType(typeArgs.get(0), imports) : "any") + ") => void";
+        }
+        if (isSubtype(type, "java.util.concurrent.CompletionStage")) {
+            // Resolved by the bridge before the JS promise settles
+            return typeArgs.size() == 1 ? tsType(typeArgs.get(0), imports) : "any";
+        }
+        if (isSubtype(type, "java.util.Map")) {
+            return "Record<string, " + (typeArgs.size() == 2 ? tsType(typeArgs.get(1), imports) : "any") + ">";
+        }
+        if (isSubtype(type, "java.lang.Iterable")) {
+            return (typeArgs.size() == 1 ? tsElementType(typeArgs.get(0), imports) : "any") + "[]";
+        }
+        return "any";
+    }
+
+    private String tsElementType(TypeMirror type, Set<TypeElement> imports) {
+        String ts = tsType(type, imports);
+        return ts.contains(" ") || ts.contains("=>") ? "(" + ts + ")" : ts;
+    }
+
+    private void writeServiceFile() {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = resource.openWriter()) {
+                for (String dispatcher : dispatchers) {
+                    writer.write(dispatcher);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private void writeReflectConfig() {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", REFLECT_CONFIG);
+            try (Writer writer = resource.openWriter()) {
+                StringJoiner entries = new StringJoiner(",\n", "[\n", "\n]\n");
+                for (String type : reflectiveTypes) {
+                    entries.add("  { \"name\": " + jsonString(type) + ", \"allDeclaredFields\": true, \"allDeclaredMethods\": true }");
+                }
+                for (String type : boundTypes) {
+                    if (reflectiveTypes.contains(type)) continue;
+                    entries.add("  { \"name\": " + jsonString(type) + ", \"allDeclaredFields\": true, \"allDeclaredMethods\": true, \"allDeclaredConstructors\": true }");
+                }
+                writer.write(entries.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write " + REFLECT_CONFIG + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Expression passing {@code args[index]}, already decoded by the function's
+     * ArgumentBinder into the parameter type, to the method.
+     */
+    private String argument(TypeMirror type, int index) {
+        return "(" + boxedName(type) + ") args[" + index + "]";
+    }
+
+    /**
+     * Java expression rebuilding a parameter type, generics included, for ArgumentBinder.
+     */
+    private String typeExpression(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY: {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                if (component.getKind() == TypeKind.DECLARED && !((DeclaredType) component).getTypeArguments().isEmpty()) {
+                    return "ArgumentBinder.arrayOf(" + typeExpression(component) + ")";
+                }
+                return types.erasure(type) + ".class";
+            }
+            case DECLARED: {
+                List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+                if (typeArguments.isEmpty()) return types.erasure(type) + ".class";
+                StringJoiner expression = new StringJoiner(", ", "ArgumentBinder.parameterized(" + types.erasure(type) + ".class, ", ")");
+                for (TypeMirror argument : typeArguments) {
+                    expression.add(typeExpression(argument));
+                }
+                return expression.toString();
+            }
+            case WILDCARD: {
+                TypeMirror bound = ((WildcardType) type).getExtendsBound();
+                return bound != null ? typeExpression(bound) : "java.lang.Object.class";
+            }
+            case TYPEVAR:
+                return types.erasure(type) + ".class";
+            default:
+                return type.getKind().isPrimitive() ? type + ".class" : "java.lang.Object.class";
+        }
+    }
+
+    /**
+     * Records the records and POJOs ArgumentBinder builds reflectively for a
+     * parameter type, or that results are read from (see ColumnarEncoder),
+     * so native images keep their constructors, fields and accessors.
+     */
+    private void collectBoundTypes(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                collectBoundTypes(((ArrayType) type).getComponentType());
+                return;
+            case WILDCARD: {
+                TypeMirror bound = ((WildcardType) type).getExtendsBound();
+                if (bound != null) collectBoundTypes(bound);
+                return;
+            }
+            case DECLARED:
+                break;
+            default:
+                return;
+        }
+
+        for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+            collectBoundTypes(argument);
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        if (element.getKind() != ElementKind.RECORD && element.getKind() != ElementKind.CLASS) return;
+        if (element.getModifiers().contains(Modifier.ABSTRACT) || isJavascriptObject(type)) return;
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("org.json.") || name.startsWith("dev.webview.")) return;
+        if (!boundTypes.add(elements.getBinaryName(element).toString())) return;
+
+        for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) continue;
+            collectBoundTypes(field.asType());
+        }
+        TypeMirror superclass = element.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) collectBoundTypes(superclass);
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+    private boolean isJavascriptObject(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && types.isAssignable(types.erasure(type), javascriptObject);
+    }
+
+    private boolean isSubtype(TypeMirror type, String superType) {
+        TypeElement element = elements.getTypeElement(superType);
+        return element != null && types.isAssignable(types.erasure(type), types.erasure(element.asType()));
+    }
+
+    private static String propertyName(VariableElement field) {
+        String value = field.getAnnotation(JavascriptValue.class).value();
+        return value.isEmpty() ? field.getSimpleName().toString() : value;
+    }
+
+    private static String functionName(ExecutableElement method) {
+        String value = method.getAnnotation(JavascriptFunction.class).value();
+        return value.isEmpty() ? method.getSimpleName().toString() : value;
+    }
+
+    /**
+     * Outer_Inner for nested types, so dispatchers of nested classes don't clash.
+     */
+    private static String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.toString();
+    }
+
+    private static String jsonString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void warn(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private void note(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+}
@@ -1,4 +1,4 @@
 rootProject.name = "webview-java"
 
-include("core", "examples")
+include("core", "processor", "examples")
 